@@ -0,0 +1,137 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.autoref.model.Game;
+import nl.roboteamtwente.autoref.model.Robot;
+import nl.roboteamtwente.autoref.model.RobotIdentifier;
+import nl.roboteamtwente.autoref.model.Vector2;
+import nl.roboteamtwente.autoref.model.Vector3;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
+import nl.roboteamtwente.proto.StateOuterClass;
+import org.robocup.ssl.proto.SslVisionDetection;
+import org.robocup.ssl.proto.SslVisionWrapper;
+
+import java.util.*;
+
+/**
+ * Finds the robots that touched the ball between two World frames, using the raw ball detections of every camera
+ * in processed_vision_packets. A short kick or deflection can happen between two World frames, but is seen by
+ * the cameras.
+ * <p>
+ * The capture time of a camera is in the clock of the vision computer, so it is aligned with the World time per
+ * camera. The newest frame of a camera cannot be captured after the World frame that includes it, so the offset
+ * follows the smallest difference between the two, and slowly drifts up when the clocks drift apart.
+ */
+public class CameraTouchDetection {
+    /**
+     * How fast the offset of a camera follows a larger difference, per frame.
+     */
+    private static final double OFFSET_DRIFT = 0.01;
+
+    /**
+     * Ball detections further than this from the ball of the World are ignored (in m).
+     */
+    private static final float MAX_BALL_DISTANCE = 0.5f;
+
+    private final Map<Integer, Double> offsets = new HashMap<>();
+
+    /**
+     * A ball detection, with the time aligned to the World.
+     */
+    record Detection(int camera, double time, Vector3 position) {
+    }
+
+    /**
+     * The first and last ball detection in which a robot touched the ball.
+     */
+    public record Contact(double startTime, Vector3 startLocation, double endTime, Vector3 endLocation) {
+    }
+
+    /**
+     * @param game        the game of the current frame, with the robots and the ball of the World
+     * @param statePacket the packet of the current frame
+     * @return the robots that touched the ball in a detection since the previous frame
+     */
+    public Map<RobotIdentifier, Contact> findContacts(Game game, StateOuterClass.State statePacket) {
+        List<Detection> detections = align(game, statePacket);
+        if (detections.isEmpty()) {
+            return Map.of();
+        }
+
+        Game previous = game.getPrevious();
+        double duration = game.getTime() - previous.getTime();
+        float ballTouchingDistance = game.getParameters().get(RuleParameter.BALL_TOUCHING_DISTANCE);
+
+        Map<RobotIdentifier, Contact> contacts = new HashMap<>();
+        for (Detection detection : detections) {
+            //the robots are only known at the World frames, in between they move in a straight line
+            float fraction = duration > 0 ? (float) ((detection.time() - previous.getTime()) / duration) : 1.0f;
+
+            for (Robot robot : game.getRobots()) {
+                Robot previousRobot = previous.getRobot(robot.getIdentifier());
+                Vector2 position = robot.getPosition().xy();
+                if (previousRobot != null) {
+                    Vector2 previousPosition = previousRobot.getPosition().xy();
+                    position = previousPosition.add(position.subtract(previousPosition).multiply(fraction));
+                }
+
+                if (position.distance(detection.position().xy()) <= robot.getTeam().getRobotRadius() + ballTouchingDistance
+                        && detection.position().getZ() <= robot.getTeam().getRobotHeight() + ballTouchingDistance) {
+                    contacts.merge(robot.getIdentifier(),
+                            new Contact(detection.time(), detection.position(), detection.time(), detection.position()),
+                            (first, last) -> new Contact(first.startTime(), first.startLocation(), last.endTime(), last.endLocation()));
+                }
+            }
+        }
+        return contacts;
+    }
+
+    /**
+     * @return the ball detections since the previous frame that belong to the ball of the World, in order of time
+     */
+    List<Detection> align(Game game, StateOuterClass.State statePacket) {
+        //update the offset of every camera with its newest frame
+        Map<Integer, Double> newest = new HashMap<>();
+        for (SslVisionWrapper.SSL_WrapperPacket packet : statePacket.getProcessedVisionPacketsList()) {
+            if (packet.hasDetection()) {
+                newest.merge(packet.getDetection().getCameraId(), packet.getDetection().getTCapture(), Math::max);
+            }
+        }
+        newest.forEach((camera, capture) -> {
+            double difference = game.getTime() - capture;
+            offsets.merge(camera, difference, (offset, sample) -> sample < offset ? sample : offset + OFFSET_DRIFT * (sample - offset));
+        });
+
+        List<Detection> detections = new ArrayList<>();
+        Vector3 worldBall = game.getBall().getPosition();
+        for (SslVisionWrapper.SSL_WrapperPacket packet : statePacket.getProcessedVisionPacketsList()) {
+            if (!packet.hasDetection()) {
+                continue;
+            }
+
+            SslVisionDetection.SSL_DetectionFrame frame = packet.getDetection();
+            double time = frame.getTCapture() + offsets.get(frame.getCameraId());
+            if (time <= game.getPrevious().getTime() || time > game.getTime()) {
+                continue;
+            }
+
+            //other balls on the field, or noise, are ignored
+            Vector3 best = null;
+            float bestDistance = MAX_BALL_DISTANCE;
+            for (SslVisionDetection.SSL_DetectionBall ball : frame.getBallsList()) {
+                Vector3 position = new Vector3(ball.getX() / 1000.0f, ball.getY() / 1000.0f, ball.getZ() / 1000.0f);
+                float distance = position.xy().distance(worldBall.xy());
+                if (distance < bestDistance) {
+                    best = position;
+                    bestDistance = distance;
+                }
+            }
+
+            if (best != null) {
+                detections.add(new Detection(frame.getCameraId(), time, best));
+            }
+        }
+
+        detections.sort(Comparator.comparingDouble(Detection::time));
+        return detections;
+    }
+}
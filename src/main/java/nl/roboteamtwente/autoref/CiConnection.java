@@ -0,0 +1,167 @@
+package nl.roboteamtwente.autoref;
+
+import org.robocup.ssl.proto.SslAutorefCi;
+import org.robocup.ssl.proto.SslGcRefereeMessage;
+import org.robocup.ssl.proto.SslVisionGeometry;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the AutoRef in lockstep with a simulated GameController (the CI mode of the ssl-game-controller).
+ * <p>
+ * The GameController sends an AutoRefCiInput over TCP for every frame, the AutoRef processes the frame on this
+ * thread and replies with an AutoRefCiOutput once it is done, so the next frame is only sent when the game
+ * events of the previous frame have been acknowledged by the GameController. A match runs as fast as the AutoRef can process it, and gives
+ * the same game events every time.
+ */
+public class CiConnection implements FrameSource {
+    /**
+     * The port the GameController connects to in CI mode by default.
+     */
+    public static final int DEFAULT_PORT = 10013;
+
+    /**
+     * The maximum time to wait for the GameController to acknowledge the game events of a frame, in ms.
+     */
+    private static final long GAME_EVENT_TIMEOUT = 1000;
+
+    private final int port;
+    private final SSLAutoRef ref;
+    private volatile ServerSocket serverSocket;
+    private volatile Socket socket;
+
+    private final TrackedFrameConverter converter = new TrackedFrameConverter();
+    private SslVisionGeometry.SSL_GeometryData geometry;
+    private SslGcRefereeMessage.SSL_Referee referee;
+    private final List<SslGcRefereeMessage.SSL_Referee> processedReferees = new ArrayList<>();
+    private long frames;
+
+    /**
+     * @param port the port to listen on
+     * @param ref  the AutoRef the frames are passed to
+     */
+    public CiConnection(int port, SSLAutoRef ref) {
+        this.port = port;
+        this.ref = ref;
+    }
+
+    /**
+     * Accept the GameController and process frames until the connection is closed,
+     * the GameController can connect again when it disconnects.
+     */
+    public void connect() {
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            this.serverSocket = serverSocket;
+            System.out.println("Waiting for the GameController in CI mode on port " + serverSocket.getLocalPort());
+            while (!Thread.currentThread().isInterrupted()) {
+                try (Socket socket = serverSocket.accept()) {
+                    this.socket = socket;
+                    socket.setTcpNoDelay(true);
+                    listener(socket);
+                } catch (IOException e) {
+                    if (serverSocket.isClosed()) {
+                        return;
+                    }
+                    System.err.println("Lost the GameController in CI mode: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            //the socket is closed by hand when the AutoRef stops
+            if (serverSocket == null || !serverSocket.isClosed()) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Process every input and reply when it has been processed.
+     */
+    public void listener(Socket socket) throws IOException {
+        InputStream input = new BufferedInputStream(socket.getInputStream());
+        OutputStream output = new BufferedOutputStream(socket.getOutputStream());
+        while (!Thread.currentThread().isInterrupted()) {
+            SslAutorefCi.AutoRefCiInput ciInput = SslAutorefCi.AutoRefCiInput.parseDelimitedFrom(input);
+            if (ciInput == null) {
+                return;
+            }
+
+            process(ciInput).writeDelimitedTo(output);
+            output.flush();
+        }
+    }
+
+    /**
+     * Process a single input. Referee messages that arrive without a frame are kept until the next frame,
+     * so every command is still applied in order.
+     *
+     * @param ciInput the input from the GameController
+     * @return the output for the GameController
+     */
+    SslAutorefCi.AutoRefCiOutput process(SslAutorefCi.AutoRefCiInput ciInput) {
+        if (ciInput.hasGeometry()) {
+            geometry = ciInput.getGeometry();
+        }
+        if (ciInput.hasRefereeMessage()) {
+            referee = ciInput.getRefereeMessage();
+            processedReferees.add(referee);
+        }
+
+        SslAutorefCi.AutoRefCiOutput.Builder output = SslAutorefCi.AutoRefCiOutput.newBuilder();
+        if (!ciInput.hasTrackerWrapperPacket() || !ciInput.getTrackerWrapperPacket().hasTrackedFrame()) {
+            return output.build();
+        }
+
+        //the AutoRef does not track by itself, so the frame it used is given back
+        output.setTrackerWrapperPacket(ciInput.getTrackerWrapperPacket());
+        if (geometry == null || referee == null) {
+            return output.build();
+        }
+
+        ref.checkViolations(converter.toState(ciInput.getTrackerWrapperPacket().getTrackedFrame(), geometry, referee, processedReferees));
+        processedReferees.clear();
+        frames++;
+
+        //the game events are sent on the connection thread, they have to arrive before the next input
+        try {
+            if (!ref.awaitGameEvents(GAME_EVENT_TIMEOUT)) {
+                System.err.println("GameController did not acknowledge the game events of frame " + frames + " in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return output.build();
+    }
+
+    /**
+     * @return the number of frames that have been processed
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Stop accepting the GameController and close the connection to it
+     */
+    @Override
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void run() {
+        connect();
+    }
+}
@@ -0,0 +1,120 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.autoref.model.Game;
+import nl.roboteamtwente.autoref.model.LineCrossing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Predicts every frame where and when the ball will leave the field, with a simple model of a rolling ball:
+ * the tracked velocity, slowed down by rolling friction.
+ * <p>
+ * When the ball leaves the field, the crossing is compared with the forecast of the frames before it. The lead is
+ * how long before the crossing the forecast predicted it, and stayed with it. That is how much earlier an event
+ * could be prepared than by the validators, which see a crossing only in the first frame after it.
+ */
+public class ExitForecaster {
+    /**
+     * The deceleration of a rolling ball in m/s^2.
+     */
+    private static final float ROLLING_DECELERATION = 0.5f;
+
+    /**
+     * A crossing this close to the forecast in meters was predicted.
+     */
+    private static final float TOLERANCE = 0.2f;
+
+    private final LineCrossingDetector detector;
+
+    private LineCrossing tracked;
+    private double trackedSince;
+
+    private final LatencyHistogram lead = new LatencyHistogram();
+    private final LatencyHistogram confirmationDelay = new LatencyHistogram();
+    private final AtomicLong predicted = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+
+    /**
+     * @param detector the detector of the crossings, which has the lines of the field
+     */
+    public ExitForecaster(LineCrossingDetector detector) {
+        this.detector = detector;
+    }
+
+    /**
+     * Compare the crossings of this frame with the forecast of the frames before, and predict the next crossing.
+     *
+     * @param game the game, with the ball and the line crossings of the current frame
+     * @return the predicted crossing, or null if the ball is predicted to stay in the field
+     */
+    public LineCrossing forecast(Game game) {
+        for (LineCrossing crossing : game.getLineCrossings()) {
+            if (crossing.leaving() && crossing.line() != LineCrossing.Line.BOUNDARY) {
+                confirm(game, crossing);
+                break;
+            }
+        }
+
+        //a robot controls the ball, it does not roll freely
+        LineCrossing forecast = game.getBall().getRobotsTouching().isEmpty() ? detector.forecast(game, ROLLING_DECELERATION) : null;
+        if (forecast == null) {
+            tracked = null;
+        } else if (tracked == null || !matches(forecast, tracked)) {
+            tracked = forecast;
+            trackedSince = game.getTime();
+        } else {
+            tracked = forecast;
+        }
+        return forecast;
+    }
+
+    private void confirm(Game game, LineCrossing crossing) {
+        confirmationDelay.record((long) ((game.getTime() - crossing.time()) * 1e9));
+        if (tracked != null && matches(crossing, tracked)) {
+            predicted.incrementAndGet();
+            lead.record((long) ((crossing.time() - trackedSince) * 1e9));
+        } else {
+            missed.incrementAndGet();
+        }
+        tracked = null;
+    }
+
+    private static boolean matches(LineCrossing crossing, LineCrossing forecast) {
+        //a goal is also a crossing of the goal line
+        return crossing.line().getSide() == forecast.line().getSide()
+                && crossing.location().distance(forecast.location()) <= TOLERANCE;
+    }
+
+    /**
+     * @return how long before the ball left the field the forecast predicted it, for the crossings that were predicted
+     */
+    public LatencyHistogram getLead() {
+        return lead;
+    }
+
+    /**
+     * @return how long after the ball left the field the crossing was seen, in World time
+     */
+    public LatencyHistogram getConfirmationDelay() {
+        return confirmationDelay;
+    }
+
+    /**
+     * @return the number of times the ball left the field where the forecast predicted it
+     */
+    public long getPredicted() {
+        return predicted.get();
+    }
+
+    /**
+     * @return the number of times the ball left the field without or against the forecast
+     */
+    public long getMissed() {
+        return missed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "predicted=" + getPredicted() + ", missed=" + getMissed() + ", lead: " + lead + ", confirmed after: " + confirmationDelay;
+    }
+}
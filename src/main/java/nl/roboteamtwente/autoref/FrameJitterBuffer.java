@@ -0,0 +1,177 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.proto.StateOuterClass;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Puts the frames of a frame source back in order before they are processed, by the time and id of the World.
+ * <p>
+ * Duplicate frames and frames older than the last processed frame are dropped. Other frames are held until a
+ * frame that is at least the delay newer arrives, so frames that arrive out of order within the delay are
+ * processed in order. The delay is in World time, so no timer is needed and a replay gives the same result.
+ * With a delay of 0 frames are never held, only duplicates and late frames are dropped.
+ * A frame that is much older than the last processed frame means the source restarted, the buffer then starts over.
+ */
+public class FrameJitterBuffer {
+    private static final Comparator<StateOuterClass.State> ORDER = Comparator
+            .comparingLong((StateOuterClass.State state) -> state.getCommandExtrapolatedWorld().getTime())
+            .thenComparingInt((state) -> state.getCommandExtrapolatedWorld().getId());
+
+    /**
+     * Frames this much older than the last processed frame (in ns) are not late, the source restarted.
+     */
+    private static final long RESTART_AGE = 1_000_000_000L;
+
+    private final PriorityQueue<StateOuterClass.State> buffer = new PriorityQueue<>(ORDER);
+    private long delay;
+
+    private StateOuterClass.State newest;
+    private StateOuterClass.State lastReleased;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong late = new AtomicLong();
+    private final AtomicLong reordered = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+
+    /**
+     * @param delay how much newer (in ns of World time) a frame has to be before the frames before it are released
+     */
+    public FrameJitterBuffer(long delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * Add a frame that was received.
+     *
+     * @param state the frame
+     * @return the frames that can be processed now, in order
+     */
+    public List<StateOuterClass.State> offer(StateOuterClass.State state) {
+        received.incrementAndGet();
+
+        if (lastReleased != null && lastReleased.getCommandExtrapolatedWorld().getTime() - state.getCommandExtrapolatedWorld().getTime() > RESTART_AGE) {
+            buffer.clear();
+            newest = null;
+            lastReleased = null;
+        }
+
+        if (isDuplicate(state)) {
+            duplicates.incrementAndGet();
+            return List.of();
+        }
+        if (lastReleased != null && ORDER.compare(state, lastReleased) < 0) {
+            late.incrementAndGet();
+            return List.of();
+        }
+        if (newest != null && ORDER.compare(state, newest) < 0) {
+            reordered.incrementAndGet();
+        } else {
+            newest = state;
+        }
+
+        buffer.add(state);
+
+        List<StateOuterClass.State> released = new ArrayList<>(1);
+        long until = newest.getCommandExtrapolatedWorld().getTime() - delay;
+        while (!buffer.isEmpty() && buffer.peek().getCommandExtrapolatedWorld().getTime() <= until) {
+            release(buffer.poll(), released);
+        }
+        return released;
+    }
+
+    /**
+     * Release every frame that is still held, e.g. when the frame source stops.
+     *
+     * @return the frames that were held, in order
+     */
+    public List<StateOuterClass.State> flush() {
+        List<StateOuterClass.State> released = new ArrayList<>(buffer.size());
+        while (!buffer.isEmpty()) {
+            release(buffer.poll(), released);
+        }
+        return released;
+    }
+
+    private void release(StateOuterClass.State state, List<StateOuterClass.State> released) {
+        //the World numbers its frames, a jump means frames were lost
+        if (lastReleased != null) {
+            long gap = (long) state.getCommandExtrapolatedWorld().getId() - lastReleased.getCommandExtrapolatedWorld().getId() - 1;
+            if (gap > 0) {
+                missing.addAndGet(gap);
+            }
+        }
+        lastReleased = state;
+        released.add(state);
+    }
+
+    private boolean isDuplicate(StateOuterClass.State state) {
+        if (lastReleased != null && ORDER.compare(state, lastReleased) == 0) {
+            return true;
+        }
+
+        for (StateOuterClass.State buffered : buffer) {
+            if (ORDER.compare(state, buffered) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param delay how much newer (in ns of World time) a frame has to be before the frames before it are released
+     */
+    public void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+    public long getDelay() {
+        return delay;
+    }
+
+    /**
+     * @return the number of frames that were received
+     */
+    public long getReceived() {
+        return received.get();
+    }
+
+    /**
+     * @return the number of frames that were dropped, because the same frame was received before
+     */
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * @return the number of frames that were dropped, because a newer frame had already been processed
+     */
+    public long getLate() {
+        return late.get();
+    }
+
+    /**
+     * @return the number of frames that arrived after a newer frame, but in time to be put back in order
+     */
+    public long getReordered() {
+        return reordered.get();
+    }
+
+    /**
+     * @return the number of frames that were never received, going by the ids of the frames that were processed
+     */
+    public long getMissing() {
+        return missing.get();
+    }
+
+    @Override
+    public String toString() {
+        return "received=" + getReceived() + ", duplicates=" + getDuplicates() + ", late=" + getLate()
+                + ", reordered=" + getReordered() + ", missing=" + getMissing();
+    }
+}
@@ -0,0 +1,393 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.autoref.model.Game;
+import nl.roboteamtwente.autoref.model.GameState;
+import nl.roboteamtwente.autoref.model.Touch;
+import nl.roboteamtwente.proto.StateOuterClass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+
+/**
+ * Records every frame the AutoRef processed, with the touches, game state changes and violations it derived,
+ * so a match can be looked at and replayed afterwards. Read a recording with {@link FrameRecording}.
+ * <p>
+ * The frame thread only hands the frame over through a lock-free queue, everything else happens on the thread of
+ * the recorder. Records are collected into blocks of about a second, and a block is compressed and appended to a
+ * memory-mapped segment file. The field and robot parameters hardly ever change, they are only kept in the first
+ * frame of a block and when they change, so every block can be read on its own. A frame starts with a byte of
+ * flags for the parts that were removed, so a part the frame never had is not restored. The blocks are the sparse index of
+ * the recording: the header of a block has the time of its first and last record.
+ * <p>
+ * A segment file has a fixed size, a new segment is started when a block does not fit anymore. A segment starts
+ * with a magic number and the version of the format. A block has a header of {@value #BLOCK_HEADER_SIZE} bytes: the compressed length, the uncompressed length, and
+ * the time of the first and the last record. A compressed length of 0 ends the segment.
+ */
+public class FrameRecorder implements Runnable, Closeable {
+    /**
+     * Default size of a segment file.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 << 20;
+
+    static final int MAGIC = 0x52545452;
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int BLOCK_HEADER_SIZE = 4 + 4 + 8 + 8;
+    static final String SEGMENT_PREFIX = "frames-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * The kind of a record, the ordinal is written to the file.
+     */
+    public enum Kind {
+        FRAME,
+        TOUCH_START,
+        TOUCH_END,
+        STATE,
+        VIOLATION
+    }
+
+    /**
+     * The flags of the parts of a frame that were removed because they did not change.
+     */
+    static final int STRIPPED_FIELD = 1;
+    static final int STRIPPED_BLUE_PARAMETERS = 2;
+    static final int STRIPPED_YELLOW_PARAMETERS = 4;
+
+    /**
+     * How long a block spans at most, in seconds of World time.
+     */
+    private static final double BLOCK_DURATION = 1.0;
+    private static final int MAX_BLOCK_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Queue<Item> queue = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+    //set when the recorder thread stopped writing, frames are not handed over anymore
+    private volatile boolean failed = false;
+    private volatile Thread thread;
+
+    //state of the frame thread
+    private int lastStartedTouch = -1;
+    private final Set<Integer> unfinishedTouches = new HashSet<>();
+    private GameState lastState;
+
+    //state of the recorder thread
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(MAX_BLOCK_SIZE);
+    private final DataOutputStream out = new DataOutputStream(block);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] compressed = new byte[MAX_BLOCK_SIZE];
+    private double blockStart = Double.NaN;
+    private double blockEnd = Double.NEGATIVE_INFINITY;
+    private Object lastField;
+    private Object lastBlueParameters;
+    private Object lastYellowParameters;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex = -1;
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * @param directory   the directory to write the segments to, it is created if it does not exist
+     * @param segmentSize the size of a segment file in bytes
+     * @throws IOException if the directory cannot be created, or already has a recording
+     */
+    public FrameRecorder(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        if (FrameRecording.isRecording(directory)) {
+            throw new IOException(directory + " already has a recording");
+        }
+    }
+
+    /**
+     * Hand a processed frame over to the recorder, this does not block.
+     *
+     * @param packet     the frame
+     * @param game       the game derived from the frame
+     * @param violations the violations found in the frame
+     */
+    public void record(StateOuterClass.State packet, Game game, List<RuleViolation> violations) {
+        if (failed) {
+            return;
+        }
+
+        double time = game.getTime();
+        queue.add(new Item(Kind.FRAME, time, packet, null));
+
+        if (game.getState() != lastState) {
+            lastState = game.getState();
+            queue.add(new Item(Kind.STATE, time, null, lastState.name()));
+        }
+
+        //the touches are changed by later frames, so what is needed is copied here
+        for (Touch touch : game.getTouches()) {
+            if (touch.getId() > lastStartedTouch) {
+                lastStartedTouch = touch.getId();
+                unfinishedTouches.add(touch.getId());
+                queue.add(new Item(Kind.TOUCH_START, time, null, "touch #" + touch.getId() + " by " + touch.getBy()
+                        + " at " + touch.getStartLocation().xy() + ", t=" + touch.getStartTime()));
+            }
+            if (touch.isFinished() && unfinishedTouches.remove(touch.getId())) {
+                queue.add(new Item(Kind.TOUCH_END, time, null, "end of touch #" + touch.getId() + " by " + touch.getBy()
+                        + " at " + touch.getEndLocation().xy() + ", t=" + touch.getEndTime()));
+            }
+        }
+        //touches that were reset will never finish
+        if (game.getTouches().isEmpty()) {
+            unfinishedTouches.clear();
+        }
+
+        for (RuleViolation violation : violations) {
+            queue.add(new Item(Kind.VIOLATION, time, violation, null));
+        }
+    }
+
+    /**
+     * Write the frames handed over until the recorder is closed. The frame thread does not wake up the recorder,
+     * which would cost it a system call, the recorder looks for new frames every few milliseconds.
+     */
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        try {
+            while (running) {
+                if (!drain()) {
+                    LockSupport.parkNanos(10_000_000L);
+                }
+            }
+            drain();
+            flushBlock();
+        } catch (IOException | RuntimeException e) {
+            //nothing drains the queue anymore, so the frame thread stops handing frames over
+            failed = true;
+            queue.clear();
+            System.err.println("Failed to record frames, recording stopped: " + e);
+        } finally {
+            closeSegment();
+        }
+    }
+
+    /**
+     * @return true if anything was written
+     */
+    private boolean drain() throws IOException {
+        Item item;
+        boolean written = false;
+        while ((item = queue.poll()) != null) {
+            write(item);
+            written = true;
+        }
+        return written;
+    }
+
+    private void write(Item item) throws IOException {
+        if (!Double.isNaN(blockStart) && (item.time() - blockStart > BLOCK_DURATION || item.time() < blockStart || block.size() > MAX_BLOCK_SIZE)) {
+            flushBlock();
+        }
+        if (Double.isNaN(blockStart)) {
+            blockStart = item.time();
+        }
+        blockEnd = Math.max(blockEnd, item.time());
+
+        byte[] payload;
+        if (item.kind() == Kind.FRAME) {
+            payload = strip((StateOuterClass.State) item.value());
+            frames.incrementAndGet();
+        } else if (item.kind() == Kind.VIOLATION) {
+            RuleViolation violation = (RuleViolation) item.value();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            data.writeUTF(violation.toString());
+            data.write(violation.toPacket().toByteArray());
+            payload = bytes.toByteArray();
+        } else {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new DataOutputStream(bytes).writeUTF(item.text());
+            payload = bytes.toByteArray();
+        }
+
+        out.writeByte(item.kind().ordinal());
+        out.writeDouble(item.time());
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    /**
+     * @return the flags of the removed parts, followed by the frame without the parts that did not change since the
+     * last frame in this block that has them
+     */
+    private byte[] strip(StateOuterClass.State frame) {
+        StateOuterClass.State.Builder builder = frame.toBuilder();
+        int stripped = 0;
+        if (frame.hasField() && frame.getField().equals(lastField)) {
+            builder.clearField();
+            stripped |= STRIPPED_FIELD;
+        }
+        if (frame.hasBlueRobotParameters() && frame.getBlueRobotParameters().equals(lastBlueParameters)) {
+            builder.clearBlueRobotParameters();
+            stripped |= STRIPPED_BLUE_PARAMETERS;
+        }
+        if (frame.hasYellowRobotParameters() && frame.getYellowRobotParameters().equals(lastYellowParameters)) {
+            builder.clearYellowRobotParameters();
+            stripped |= STRIPPED_YELLOW_PARAMETERS;
+        }
+
+        if (frame.hasField()) {
+            lastField = frame.getField();
+        }
+        if (frame.hasBlueRobotParameters()) {
+            lastBlueParameters = frame.getBlueRobotParameters();
+        }
+        if (frame.hasYellowRobotParameters()) {
+            lastYellowParameters = frame.getYellowRobotParameters();
+        }
+        byte[] message = (stripped != 0 ? builder.build() : frame).toByteArray();
+        byte[] payload = new byte[message.length + 1];
+        payload[0] = (byte) stripped;
+        System.arraycopy(message, 0, payload, 1, message.length);
+        return payload;
+    }
+
+    private void flushBlock() throws IOException {
+        if (block.size() == 0) {
+            return;
+        }
+
+        out.flush();
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        if (compressed.length < raw.length + 64) {
+            compressed = new byte[raw.length + 64];
+        }
+        int length = 0;
+        while (!deflater.finished()) {
+            length += deflater.deflate(compressed, length, compressed.length - length);
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+        }
+
+        int required = BLOCK_HEADER_SIZE + length + 4;
+        if (segment == null || segment.position() + required > segment.capacity()) {
+            openSegment(required);
+        }
+        segment.putInt(segment.position() + 4, raw.length);
+        segment.putDouble(segment.position() + 8, blockStart);
+        segment.putDouble(segment.position() + 16, blockEnd);
+        segment.put(segment.position() + BLOCK_HEADER_SIZE, compressed, 0, length);
+        //terminate the segment before the length makes the block visible
+        segment.putInt(segment.position() + BLOCK_HEADER_SIZE + length, 0);
+        segment.putInt(segment.position(), length);
+        segment.position(segment.position() + BLOCK_HEADER_SIZE + length);
+        bytesWritten.addAndGet(BLOCK_HEADER_SIZE + length);
+
+        block.reset();
+        blockStart = Double.NaN;
+        blockEnd = Double.NEGATIVE_INFINITY;
+        lastField = null;
+        lastBlueParameters = null;
+        lastYellowParameters = null;
+    }
+
+    private void openSegment(int required) throws IOException {
+        closeSegment();
+        segmentIndex++;
+        Path file = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, SEGMENT_HEADER_SIZE + required));
+        segment.order(ByteOrder.BIG_ENDIAN);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putInt(SEGMENT_HEADER_SIZE, 0);
+        segment.position(SEGMENT_HEADER_SIZE);
+        bytesWritten.addAndGet(SEGMENT_HEADER_SIZE);
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+
+        int end = segment.position() + 4;
+        segment.force();
+        segment = null;
+        try {
+            //the rest of the segment is not needed, this fails on systems that do not allow truncating a mapped file
+            channel.truncate(end);
+        } catch (IOException ignored) {
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close frame segment: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    /**
+     * Stop the recorder, the frames that were handed over are written first.
+     */
+    @Override
+    public void close() {
+        running = false;
+        Thread thread = this.thread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return whether the recorder stopped because writing failed
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the number of frames that were written
+     */
+    public long getFrames() {
+        return frames.get();
+    }
+
+    /**
+     * @return the number of bytes written to the segments
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    @Override
+    public String toString() {
+        return "frames=" + getFrames() + ", bytes=" + getBytesWritten() + ", segments=" + (segmentIndex + 1);
+    }
+
+    private record Item(Kind kind, double time, Object value, String text) {
+    }
+}
@@ -0,0 +1,259 @@
+package nl.roboteamtwente.autoref;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import nl.roboteamtwente.proto.RobotParametersOuterClass;
+import nl.roboteamtwente.proto.StateOuterClass;
+import org.robocup.ssl.proto.SslGcGameEvent;
+import org.robocup.ssl.proto.SslVisionGeometry;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A recording written by a {@link FrameRecorder}. Opening it only reads the headers of the blocks, which form a
+ * sparse index of the recording by time, so finding the records around a time takes a binary search and
+ * decompressing a single block.
+ */
+public class FrameRecording {
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final List<Block> blocks = new ArrayList<>();
+
+    /**
+     * A record in the recording.
+     *
+     * @param kind      the kind of record
+     * @param time      the World time of the frame the record belongs to, in seconds
+     * @param frame     the frame, for a frame record
+     * @param text      the description of a touch or violation, or the name of the game state
+     * @param gameEvent the game event of a violation
+     */
+    public record Entry(FrameRecorder.Kind kind, double time, StateOuterClass.State frame, String text, SslGcGameEvent.GameEvent gameEvent) {
+    }
+
+    private record Block(int segment, int position, int length, int rawLength, double start, double end) {
+    }
+
+    /**
+     * Open a recording, which can still be written to, only the blocks written so far are read.
+     *
+     * @param directory the directory with the segments
+     * @throws IOException if the segments cannot be read
+     */
+    public FrameRecording(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(FrameRecording::isSegment).sorted().toList();
+        }
+
+        for (Path file : files) {
+            ByteBuffer segment;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (segment.capacity() < FrameRecorder.SEGMENT_HEADER_SIZE + 4 || segment.getInt(0) != FrameRecorder.MAGIC) {
+                continue;
+            }
+            if (segment.getInt(4) != FrameRecorder.VERSION) {
+                throw new IOException(file + " was recorded in version " + segment.getInt(4) + " of the format, not " + FrameRecorder.VERSION);
+            }
+
+            int index = segments.size();
+            segments.add(segment);
+            int position = FrameRecorder.SEGMENT_HEADER_SIZE;
+            while (position + FrameRecorder.BLOCK_HEADER_SIZE <= segment.capacity()) {
+                int length = segment.getInt(position);
+                if (length <= 0 || position + FrameRecorder.BLOCK_HEADER_SIZE + length > segment.capacity()) {
+                    break;
+                }
+                blocks.add(new Block(index, position, length, segment.getInt(position + 4),
+                        segment.getDouble(position + 8), segment.getDouble(position + 16)));
+                position += FrameRecorder.BLOCK_HEADER_SIZE + length;
+            }
+        }
+    }
+
+    /**
+     * @param directory a directory
+     * @return whether the directory has segments of a recording
+     * @throws IOException if the directory cannot be listed
+     */
+    public static boolean isRecording(Path directory) throws IOException {
+        try (Stream<Path> list = Files.list(directory)) {
+            return list.anyMatch(FrameRecording::isSegment);
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        return file.getFileName().toString().startsWith(FrameRecorder.SEGMENT_PREFIX)
+                && file.getFileName().toString().endsWith(FrameRecorder.SEGMENT_SUFFIX);
+    }
+
+    /**
+     * @return the number of blocks, a block holds about a second of the recording
+     */
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * @return the time of the first record, or NaN if the recording is empty
+     */
+    public double getStartTime() {
+        return blocks.isEmpty() ? Double.NaN : blocks.get(0).start();
+    }
+
+    /**
+     * @return the time of the last record, or NaN if the recording is empty
+     */
+    public double getEndTime() {
+        return blocks.isEmpty() ? Double.NaN : blocks.get(blocks.size() - 1).end();
+    }
+
+    /**
+     * @param from the first time, in seconds of World time
+     * @param to   the last time, in seconds of World time
+     * @return the records between the two times, in the order they were recorded
+     * @throws IOException if a block cannot be read
+     */
+    public List<Entry> read(double from, double to) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = seek(from); i < blocks.size() && blocks.get(i).start() <= to; i++) {
+            for (Entry entry : readBlock(blocks.get(i))) {
+                if (entry.time() >= from && entry.time() <= to) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return every record, in the order they were recorded
+     * @throws IOException if a block cannot be read
+     */
+    public List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Block block : blocks) {
+            entries.addAll(readBlock(block));
+        }
+        return entries;
+    }
+
+    /**
+     * Pass every record to the consumer, one block at a time, so the recording does not have to fit in memory.
+     *
+     * @param consumer the consumer of the records, in the order they were recorded
+     * @throws IOException if a block cannot be read
+     */
+    public void forEach(Consumer<Entry> consumer) throws IOException {
+        for (Block block : blocks) {
+            readBlock(block).forEach(consumer);
+        }
+    }
+
+    /**
+     * @return the index of the first block that ends at or after the given time
+     */
+    private int seek(double time) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.get(middle).end() < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<Entry> readBlock(Block block) throws IOException {
+        ByteBuffer segment = segments.get(block.segment());
+        byte[] compressed = new byte[block.length()];
+        segment.get(block.position() + FrameRecorder.BLOCK_HEADER_SIZE, compressed);
+
+        byte[] raw = new byte[block.rawLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if (inflater.inflate(raw) != raw.length) {
+                throw new IOException("Block at " + block.position() + " of segment " + block.segment() + " is incomplete");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Block at " + block.position() + " of segment " + block.segment() + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+
+        //frames only have the field and robot parameters when they changed, the flags tell which parts were removed
+        SslVisionGeometry.SSL_GeometryData lastField = null;
+        RobotParametersOuterClass.TeamParameters lastBlueParameters = null;
+        RobotParametersOuterClass.TeamParameters lastYellowParameters = null;
+        List<Entry> entries = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        while (in.available() > 0) {
+            FrameRecorder.Kind kind = FrameRecorder.Kind.values()[in.readByte()];
+            double time = in.readDouble();
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+
+            switch (kind) {
+                case FRAME -> {
+                    int stripped = payload[0];
+                    StateOuterClass.State frame = StateOuterClass.State.parseFrom(ByteBuffer.wrap(payload, 1, payload.length - 1));
+                    if (stripped != 0) {
+                        StateOuterClass.State.Builder builder = frame.toBuilder();
+                        if ((stripped & FrameRecorder.STRIPPED_FIELD) != 0) {
+                            builder.setField(lastField);
+                        }
+                        if ((stripped & FrameRecorder.STRIPPED_BLUE_PARAMETERS) != 0) {
+                            builder.setBlueRobotParameters(lastBlueParameters);
+                        }
+                        if ((stripped & FrameRecorder.STRIPPED_YELLOW_PARAMETERS) != 0) {
+                            builder.setYellowRobotParameters(lastYellowParameters);
+                        }
+                        frame = builder.build();
+                    }
+                    if (frame.hasField()) {
+                        lastField = frame.getField();
+                    }
+                    if (frame.hasBlueRobotParameters()) {
+                        lastBlueParameters = frame.getBlueRobotParameters();
+                    }
+                    if (frame.hasYellowRobotParameters()) {
+                        lastYellowParameters = frame.getYellowRobotParameters();
+                    }
+                    entries.add(new Entry(kind, time, frame, null, null));
+                }
+                case VIOLATION -> {
+                    DataInputStream violation = new DataInputStream(new ByteArrayInputStream(payload));
+                    String text = violation.readUTF();
+                    entries.add(new Entry(kind, time, null, text, parseGameEvent(violation.readAllBytes())));
+                }
+                default -> entries.add(new Entry(kind, time, null, new DataInputStream(new ByteArrayInputStream(payload)).readUTF(), null));
+            }
+        }
+        return entries;
+    }
+
+    private static SslGcGameEvent.GameEvent parseGameEvent(byte[] bytes) {
+        try {
+            return SslGcGameEvent.GameEvent.parseFrom(bytes);
+        } catch (InvalidProtocolBufferException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package nl.roboteamtwente.autoref;
+
+/**
+ * A source of frames for the AutoRef. A frame source runs on its own thread and passes every frame to
+ * {@link SSLAutoRef#checkViolations}, converted to the State message of the RoboTeam World, so the AutoRef does
+ * not depend on where the frames come from.
+ */
+public interface FrameSource extends Runnable {
+    /**
+     * Receive frames until the source is closed.
+     */
+    @Override
+    void run();
+
+    /**
+     * Stop receiving frames, after which {@link #run()} returns.
+     */
+    void close();
+}
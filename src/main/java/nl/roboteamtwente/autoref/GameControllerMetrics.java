@@ -0,0 +1,116 @@
+package nl.roboteamtwente.autoref;
+
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the game events sent to the GameController, per event type.
+ * <p>
+ * The time in queue and signing time are spent in the AutoRef, the round trip is spent in the network and
+ * the GameController. The metrics are recorded by the connection thread and can be read from any thread.
+ */
+public class GameControllerMetrics {
+    private final Map<SslGcGameEvent.GameEvent.Type, TypeMetrics> types = new EnumMap<>(SslGcGameEvent.GameEvent.Type.class);
+    private final Map<String, LongAdder> rejectionReasons = new ConcurrentHashMap<>();
+
+    public GameControllerMetrics() {
+        //all types are created up front, so the map is never modified while it is read
+        for (SslGcGameEvent.GameEvent.Type type : SslGcGameEvent.GameEvent.Type.values()) {
+            types.put(type, new TypeMetrics());
+        }
+    }
+
+    /**
+     * @param type the type of the game events
+     * @return the metrics of the game events of this type
+     */
+    public TypeMetrics get(SslGcGameEvent.GameEvent.Type type) {
+        return types.get(type);
+    }
+
+    void recordReply(SslGcGameEvent.GameEvent.Type type, long sent, boolean accepted, String reason) {
+        TypeMetrics metrics = types.get(type);
+        metrics.roundTrip.recordSince(sent);
+        if (accepted) {
+            metrics.accepted.increment();
+        } else {
+            metrics.rejected.increment();
+            rejectionReasons.computeIfAbsent(reason, (key) -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * @return the number of rejected game events, by the reason given by the GameController
+     */
+    public Map<String, Long> getRejectionReasons() {
+        Map<String, Long> result = new TreeMap<>();
+        rejectionReasons.forEach((reason, count) -> result.put(reason, count.sum()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return a summary of every event type that was sent at least once
+     */
+    public String getReport() {
+        StringBuilder builder = new StringBuilder("GameController metrics:");
+        types.forEach((type, metrics) -> {
+            if (metrics.queue.getCount() == 0) {
+                return;
+            }
+
+            builder.append("\n    ").append(type).append(": ").append(metrics.getAccepted()).append(" accepted, ")
+                    .append(metrics.getRejected()).append(" rejected")
+                    .append("\n        queue:      ").append(metrics.queue)
+                    .append("\n        signing:    ").append(metrics.signing)
+                    .append("\n        round trip: ").append(metrics.roundTrip);
+        });
+        getRejectionReasons().forEach((reason, count) -> builder.append("\n    rejected ").append(count).append("x: ").append(reason));
+        return builder.toString();
+    }
+
+    /**
+     * The metrics of a single game event type.
+     */
+    public static class TypeMetrics {
+        private final LatencyHistogram queue = new LatencyHistogram();
+        private final LatencyHistogram signing = new LatencyHistogram();
+        private final LatencyHistogram roundTrip = new LatencyHistogram();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        /**
+         * @return the time between queueing an event and writing it to the socket
+         */
+        public LatencyHistogram getQueueLatency() {
+            return queue;
+        }
+
+        /**
+         * @return the time it takes to sign an event
+         */
+        public LatencyHistogram getSigningLatency() {
+            return signing;
+        }
+
+        /**
+         * @return the time between writing an event to the socket and receiving the reply
+         */
+        public LatencyHistogram getRoundTripLatency() {
+            return roundTrip;
+        }
+
+        public long getAccepted() {
+            return accepted.sum();
+        }
+
+        public long getRejected() {
+            return rejected.sum();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package nl.roboteamtwente.autoref;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only journal of the game events sent to the GameController, backed by a memory-mapped file.
+ * <p>
+ * Every event gets a sequence number, and a record is marked as acknowledged in place once the GameController
+ * replied to it. Events are not necessarily acknowledged in the order they were appended, as urgent events
+ * are sent first. The header holds the sequence number before which every event is acknowledged. Events that
+ * are not acknowledged survive a lost connection and a restart of the AutoRef, and can be sent again.
+ * <p>
+ * The file has a fixed size. When the end is reached the unacknowledged events are moved to the start of
+ * the file, and when they do not fit the oldest ones are dropped, so an append never has to grow the file.
+ * The journal is not thread-safe, it is only used by the GameController connection thread.
+ */
+public class GameEventJournal implements Closeable {
+    /**
+     * Default size of the journal file, enough for thousands of events.
+     */
+    public static final int DEFAULT_SIZE = 1 << 20;
+
+    private static final int MAGIC = 0x52545447;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 4 + 8 + 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The position of every record that is not acknowledged, by sequence number.
+     */
+    private final TreeMap<Long, Integer> unacknowledged = new TreeMap<>();
+    private long nextSequence;
+    private int writePosition;
+    private long dropped;
+
+    /**
+     * Open a journal, an existing journal is continued.
+     *
+     * @param file the journal file
+     * @param size the size of the journal in bytes, only used when the file is created
+     * @throws IOException if the file cannot be mapped
+     */
+    public GameEventJournal(Path file, int size) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long fileSize = channel.size() >= HEADER_SIZE ? channel.size() : size;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(4, 0);
+            buffer.putInt(HEADER_SIZE, 0);
+            writePosition = HEADER_SIZE;
+            return;
+        }
+
+        //find the unacknowledged records and the end of the journal
+        long acknowledged = buffer.getLong(4);
+        nextSequence = acknowledged;
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            int end = position + RECORD_HEADER_SIZE + Math.abs(length);
+            if (length == 0 || end > buffer.capacity() || (length > 0 && readEntry(position) == null)) {
+                break;
+            }
+
+            long sequence = buffer.getLong(position + 4);
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            if (length > 0 && sequence >= acknowledged) {
+                unacknowledged.put(sequence, position);
+            }
+            position = end;
+        }
+        writePosition = position;
+    }
+
+    /**
+     * Append an event to the journal.
+     *
+     * @param gameEvent the event
+     * @param time      the time the event was raised, in milliseconds since the epoch
+     * @return the journal entry
+     */
+    public Entry append(SslGcGameEvent.GameEvent gameEvent, long time) {
+        byte[] payload = gameEvent.toByteArray();
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (HEADER_SIZE + recordSize + 4 > buffer.capacity()) {
+            throw new IllegalArgumentException("Game event does not fit in the journal");
+        }
+
+        if (writePosition + recordSize + 4 > buffer.capacity()) {
+            compact(recordSize + 4);
+        }
+
+        int start = writePosition;
+        long sequence = nextSequence++;
+        buffer.putLong(start + 4, sequence);
+        buffer.putLong(start + 12, time);
+        buffer.put(start + RECORD_HEADER_SIZE, payload);
+        //terminate the journal before the length makes the record visible
+        buffer.putInt(start + recordSize, 0);
+        buffer.putInt(start, payload.length);
+        writePosition = start + recordSize;
+        unacknowledged.put(sequence, start);
+
+        return new Entry(sequence, time, gameEvent);
+    }
+
+    /**
+     * Mark an event as acknowledged, a negative length marks the record as acknowledged in the file.
+     *
+     * @param sequence the sequence number of the event
+     */
+    public void acknowledge(long sequence) {
+        Integer position = unacknowledged.remove(sequence);
+        if (position == null) {
+            return;
+        }
+
+        buffer.putInt(position, -buffer.getInt(position));
+        buffer.putLong(4, unacknowledged.isEmpty() ? nextSequence : unacknowledged.firstKey());
+    }
+
+    /**
+     * @return the events that are not acknowledged yet, oldest first
+     */
+    public List<Entry> getUnacknowledged() {
+        List<Entry> entries = new ArrayList<>(unacknowledged.size());
+        for (int position : unacknowledged.values()) {
+            entries.add(readEntry(position));
+        }
+        return entries;
+    }
+
+    /**
+     * @return the number of unacknowledged events that were dropped because the journal was full
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Move the unacknowledged events to the start of the journal, dropping the oldest ones until there is
+     * enough room for a record of the given size.
+     */
+    private void compact(int required) {
+        int start = unacknowledged.isEmpty() ? writePosition : unacknowledged.firstEntry().getValue();
+        while (!unacknowledged.isEmpty() && HEADER_SIZE + (writePosition - start) + required > buffer.capacity()) {
+            Map.Entry<Long, Integer> oldest = unacknowledged.firstEntry();
+            System.out.println("Game event journal full, dropped " + readEntry(oldest.getValue()).gameEvent().getType());
+            acknowledge(oldest.getKey());
+            dropped++;
+            start = unacknowledged.isEmpty() ? writePosition : unacknowledged.firstEntry().getValue();
+        }
+
+        //acknowledged records between the unacknowledged ones are moved as well, they are skipped when reading
+        int length = writePosition - start;
+        byte[] tail = new byte[length];
+        buffer.get(start, tail);
+        buffer.put(HEADER_SIZE, tail);
+        writePosition = HEADER_SIZE + length;
+        buffer.putInt(writePosition, 0);
+
+        int offset = start - HEADER_SIZE;
+        unacknowledged.replaceAll((sequence, position) -> position - offset);
+    }
+
+    /**
+     * @return the entry of the record at the given position, or null if it is not a complete record
+     */
+    private Entry readEntry(int position) {
+        int length = Math.abs(buffer.getInt(position));
+        byte[] payload = new byte[length];
+        buffer.get(position + RECORD_HEADER_SIZE, payload);
+        try {
+            SslGcGameEvent.GameEvent gameEvent = SslGcGameEvent.GameEvent.parseFrom(payload);
+            return new Entry(buffer.getLong(position + 4), buffer.getLong(position + 12), gameEvent);
+        } catch (InvalidProtocolBufferException e) {
+            //a partially written record, the journal ends here
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * An event in the journal.
+     *
+     * @param sequence  the sequence number of the event
+     * @param time      the time the event was raised, in milliseconds since the epoch
+     * @param gameEvent the event
+     */
+    public record Entry(long sequence, long time, SslGcGameEvent.GameEvent gameEvent) {
+    }
+}
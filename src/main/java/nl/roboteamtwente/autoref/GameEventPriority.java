@@ -0,0 +1,64 @@
+package nl.roboteamtwente.autoref;
+
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The order in which game events are sent to the GameController, when several events are waiting.
+ */
+public enum GameEventPriority {
+    /**
+     * Goals, the ball leaving the field and fouls that stop the game, the game should not continue without them.
+     */
+    GAME_STOPPING,
+    /**
+     * Fouls that do not stop the game.
+     */
+    FOUL,
+    /**
+     * Fouls while the ball is out of play, these only count towards the number of fouls of a team.
+     */
+    STATISTICAL;
+
+    private static final Set<SslGcGameEvent.GameEvent.Type> GAME_STOPPING_TYPES = EnumSet.of(
+            SslGcGameEvent.GameEvent.Type.POSSIBLE_GOAL,
+            SslGcGameEvent.GameEvent.Type.GOAL,
+            SslGcGameEvent.GameEvent.Type.INVALID_GOAL,
+            SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_TOUCH_LINE,
+            SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_GOAL_LINE,
+            SslGcGameEvent.GameEvent.Type.AIMLESS_KICK,
+            SslGcGameEvent.GameEvent.Type.BOUNDARY_CROSSING,
+            SslGcGameEvent.GameEvent.Type.DEFENDER_IN_DEFENSE_AREA,
+            SslGcGameEvent.GameEvent.Type.KEEPER_HELD_BALL,
+            SslGcGameEvent.GameEvent.Type.BOT_DRIBBLED_BALL_TOO_FAR,
+            SslGcGameEvent.GameEvent.Type.BOT_PUSHED_BOT,
+            SslGcGameEvent.GameEvent.Type.BOT_HELD_BALL_DELIBERATELY,
+            SslGcGameEvent.GameEvent.Type.BOT_TIPPED_OVER,
+            SslGcGameEvent.GameEvent.Type.ATTACKER_DOUBLE_TOUCHED_BALL,
+            SslGcGameEvent.GameEvent.Type.PENALTY_KICK_FAILED,
+            SslGcGameEvent.GameEvent.Type.PLACEMENT_SUCCEEDED,
+            SslGcGameEvent.GameEvent.Type.NO_PROGRESS_IN_GAME
+    );
+
+    private static final Set<SslGcGameEvent.GameEvent.Type> STATISTICAL_TYPES = EnumSet.of(
+            SslGcGameEvent.GameEvent.Type.BOT_TOO_FAST_IN_STOP,
+            SslGcGameEvent.GameEvent.Type.DEFENDER_TOO_CLOSE_TO_KICK_POINT,
+            SslGcGameEvent.GameEvent.Type.BOT_INTERFERED_PLACEMENT,
+            SslGcGameEvent.GameEvent.Type.ATTACKER_TOO_CLOSE_TO_DEFENSE_AREA
+    );
+
+    /**
+     * @param type the type of the game event
+     * @return the priority of game events of this type, events that are not classified are fouls
+     */
+    public static GameEventPriority of(SslGcGameEvent.GameEvent.Type type) {
+        if (GAME_STOPPING_TYPES.contains(type)) {
+            return GAME_STOPPING;
+        } else if (STATISTICAL_TYPES.contains(type)) {
+            return STATISTICAL;
+        }
+        return FOUL;
+    }
+}
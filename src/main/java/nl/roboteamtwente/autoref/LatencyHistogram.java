@@ -0,0 +1,86 @@
+package nl.roboteamtwente.autoref;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds. Samples are counted in power-of-two buckets,
+ * so recording a sample is a handful of atomic increments and percentiles are accurate within a factor of two.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    /**
+     * Bucket i counts the samples in the range [2^i, 2^(i+1)) nanoseconds, bucket 0 also counts 0.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos the duration to record, negative durations are counted as 0.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Record the time passed since the given start.
+     *
+     * @param startNanos the start time as given by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return the mean duration in nanoseconds.
+     */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) total.get() / n;
+    }
+
+    /**
+     * @return the longest duration in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100.
+     * @return an upper bound in nanoseconds of the given percentile.
+     */
+    public long getPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d, mean=%.1fus, p50<=%.1fus, p99<=%.1fus, max=%.1fus",
+                getCount(), getMean() / 1000.0, getPercentile(50) / 1000.0, getPercentile(99) / 1000.0, getMax() / 1000.0);
+    }
+}
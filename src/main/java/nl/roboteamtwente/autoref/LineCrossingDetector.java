@@ -0,0 +1,221 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the lines the ball crossed between the previous frame and the current one, by intersecting the path of
+ * the ball with the lines of the field. A fast ball travels about 10 cm between two frames, this gives the exact
+ * point and time it crossed a line, and also finds a goal when the ball is already out of the goal again.
+ * <p>
+ * When the ball is not visible, e.g. behind a robot at the line or inside the goal, the path is taken from the last
+ * position the ball was seen at to the next one.
+ * <p>
+ * The lines are compiled once into arrays, and only compiled again when the field or the boundary margin changes.
+ */
+public class LineCrossingDetector {
+    private static final float EPSILON = 1e-9f;
+
+    private LineCrossing.Line[] kinds = new LineCrossing.Line[0];
+    //per line: start x, start y, direction x, direction y, outward normal x, outward normal y
+    private float[] lines = new float[0];
+    private float[] compiledFor;
+
+    //the last position and time the ball was seen at
+    private boolean seen = false;
+    private float lastX;
+    private float lastY;
+    private double lastTime;
+
+    /**
+     * @param game the game, with the field and the ball of the current frame
+     * @return the lines the ball crossed since it was last seen, in order of time
+     */
+    public List<LineCrossing> detect(Game game) {
+        Ball ball = game.getBall();
+        if (!ball.isVisible()) {
+            return List.of();
+        }
+
+        float px = lastX;
+        float py = lastY;
+        double previousTime = lastTime;
+        boolean wasSeen = seen && lastTime <= game.getTime();
+        seen = true;
+        lastX = ball.getPosition().getX();
+        lastY = ball.getPosition().getY();
+        lastTime = game.getTime();
+        if (!wasSeen) {
+            return List.of();
+        }
+
+        compile(game);
+
+        float dx = ball.getPosition().getX() - px;
+        float dy = ball.getPosition().getY() - py;
+        if (dx * dx + dy * dy < EPSILON) {
+            return List.of();
+        }
+
+        List<LineCrossing> crossings = new ArrayList<>(2);
+        for (int i = 0; i < kinds.length; i++) {
+            int j = i * 6;
+            float ex = lines[j + 2];
+            float ey = lines[j + 3];
+            float denominator = dx * ey - dy * ex;
+            if (Math.abs(denominator) < EPSILON) {
+                continue;
+            }
+
+            float qx = lines[j] - px;
+            float qy = lines[j + 1] - py;
+            //fraction along the path of the ball, and along the line
+            float t = (qx * ey - qy * ex) / denominator;
+            float u = (qx * dy - qy * dx) / denominator;
+            if (t <= 0.0f || t > 1.0f || u < 0.0f || u > 1.0f) {
+                continue;
+            }
+
+            double time = previousTime + t * (game.getTime() - previousTime);
+            boolean leaving = dx * lines[j + 4] + dy * lines[j + 5] > 0.0f;
+            crossings.add(new LineCrossing(kinds[i], new Vector2(px + t * dx, py + t * dy), time, leaving));
+        }
+
+        crossings.sort(Comparator.comparingDouble(LineCrossing::time));
+        return crossings;
+    }
+
+    /**
+     * Predict the first line the ball will leave the field over, if it keeps rolling in a straight line and slows
+     * down at a constant deceleration. This takes constant time for a given field.
+     *
+     * @param game         the game, with the field and the ball of the current frame
+     * @param deceleration the deceleration of the ball in m/s^2
+     * @return the predicted crossing, or null if the ball stops before it leaves the field
+     */
+    public LineCrossing forecast(Game game, float deceleration) {
+        Ball ball = game.getBall();
+        float speed = ball.getVelocity().xy().magnitude();
+        if (!ball.isVisible() || speed < EPSILON) {
+            return null;
+        }
+
+        compile(game);
+
+        //the path of the ball until it stops
+        float distance = speed * speed / (2 * deceleration);
+        float px = ball.getPosition().getX();
+        float py = ball.getPosition().getY();
+        float dx = ball.getVelocity().getX() / speed * distance;
+        float dy = ball.getVelocity().getY() / speed * distance;
+
+        int first = -1;
+        float firstT = Float.MAX_VALUE;
+        for (int i = 0; i < kinds.length; i++) {
+            int j = i * 6;
+            if (dx * lines[j + 4] + dy * lines[j + 5] <= 0.0f) {
+                continue;
+            }
+
+            float ex = lines[j + 2];
+            float ey = lines[j + 3];
+            float denominator = dx * ey - dy * ex;
+            if (Math.abs(denominator) < EPSILON) {
+                continue;
+            }
+
+            float qx = lines[j] - px;
+            float qy = lines[j + 1] - py;
+            float t = (qx * ey - qy * ex) / denominator;
+            float u = (qx * dy - qy * dx) / denominator;
+            if (t <= 0.0f || t > 1.0f || u < 0.0f || u > 1.0f) {
+                continue;
+            }
+
+            //the goal lies on the goal line, so it wins a tie
+            if (t < firstT || (t == firstT && kinds[i].isGoal())) {
+                first = i;
+                firstT = t;
+            }
+        }
+
+        if (first == -1) {
+            return null;
+        }
+
+        //solve distance = speed * time - deceleration * time^2 / 2 for the time to the line
+        double travelled = firstT * distance;
+        double time = (speed - Math.sqrt(Math.max(speed * speed - 2 * deceleration * travelled, 0))) / deceleration;
+        return new LineCrossing(kinds[first], new Vector2(px + firstT * dx, py + firstT * dy), game.getTime() + time, true);
+    }
+
+    private void compile(Game game) {
+        Field field = game.getField();
+        float margin = game.getParameters().get(RuleParameter.BOUNDARY_CROSSING_MARGIN);
+        float[] key = {field.getPosition().getX(), field.getPosition().getY(), field.getSize().getX(), field.getSize().getY(),
+                field.getGoal().getWidth(), margin};
+        if (Arrays.equals(compiledFor, key)) {
+            return;
+        }
+
+        List<LineCrossing.Line> kinds = new ArrayList<>();
+        List<Vector2[]> segments = new ArrayList<>();
+        addLine(kinds, segments, LineCrossing.Line.TOP_TOUCH_LINE, field.getLineByName("TopTouchLine"));
+        addLine(kinds, segments, LineCrossing.Line.BOTTOM_TOUCH_LINE, field.getLineByName("BottomTouchLine"));
+        addLine(kinds, segments, LineCrossing.Line.LEFT_GOAL_LINE, field.getLineByName("LeftGoalLine"));
+        addLine(kinds, segments, LineCrossing.Line.RIGHT_GOAL_LINE, field.getLineByName("RightGoalLine"));
+
+        float goalY = field.getGoal().getWidth() / 2;
+        for (Side side : Side.values()) {
+            FieldLine goalLine = field.getLineByName(side == Side.LEFT ? "LeftGoalLine" : "RightGoalLine");
+            if (goalLine != null) {
+                kinds.add(side == Side.LEFT ? LineCrossing.Line.LEFT_GOAL : LineCrossing.Line.RIGHT_GOAL);
+                segments.add(new Vector2[]{new Vector2(goalLine.p1().getX(), -goalY), new Vector2(goalLine.p1().getX(), goalY)});
+            }
+        }
+
+        float left = field.getPosition().getX() - margin;
+        float bottom = field.getPosition().getY() - margin;
+        float right = field.getPosition().getX() + field.getSize().getX() + margin;
+        float top = field.getPosition().getY() + field.getSize().getY() + margin;
+        Vector2[] corners = {new Vector2(left, bottom), new Vector2(right, bottom), new Vector2(right, top), new Vector2(left, top)};
+        for (int i = 0; i < corners.length; i++) {
+            kinds.add(LineCrossing.Line.BOUNDARY);
+            segments.add(new Vector2[]{corners[i], corners[(i + 1) % corners.length]});
+        }
+
+        Vector2 center = new Vector2(field.getPosition().getX() + field.getSize().getX() / 2, field.getPosition().getY() + field.getSize().getY() / 2);
+        this.kinds = kinds.toArray(new LineCrossing.Line[0]);
+        this.lines = new float[kinds.size() * 6];
+        for (int i = 0; i < segments.size(); i++) {
+            Vector2 start = segments.get(i)[0];
+            Vector2 direction = segments.get(i)[1].subtract(start);
+            //the normal that points away from the center of the field
+            Vector2 normal = new Vector2(direction.getY(), -direction.getX());
+            if (normal.dotProduct(start.subtract(center)) < 0) {
+                normal = normal.multiply(-1);
+            }
+
+            int j = i * 6;
+            lines[j] = start.getX();
+            lines[j + 1] = start.getY();
+            lines[j + 2] = direction.getX();
+            lines[j + 3] = direction.getY();
+            lines[j + 4] = normal.getX();
+            lines[j + 5] = normal.getY();
+        }
+        compiledFor = key;
+    }
+
+    private static void addLine(List<LineCrossing.Line> kinds, List<Vector2[]> segments, LineCrossing.Line kind, FieldLine line) {
+        if (line != null) {
+            kinds.add(kind);
+            segments.add(new Vector2[]{line.p1(), line.p2()});
+        }
+    }
+}
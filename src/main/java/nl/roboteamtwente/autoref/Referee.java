@@ -1,37 +1,58 @@
 package nl.roboteamtwente.autoref;
 
 import nl.roboteamtwente.autoref.model.Game;
+import nl.roboteamtwente.autoref.model.GameState;
 import nl.roboteamtwente.autoref.validators.*;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class Referee {
-    private static final List<RuleValidator> RULE_VALIDATORS = List.of(
-            new PossibleGoalValidator(), //First validator to give priority on checking this rule
-            new AimlessKickValidator(),
-            new AttackerDoubleTouchedBallValidator(),
-            new AttackerTooCloseToDefenseAreaValidator(),
-            new AttackerTouchedBallInDefenseAreaValidator(),
-            new BallLeftFieldGoalLineValidator(),
-            new BallLeftFieldTouchLineValidator(),
-            new BotCrashingValidator(),
-            new BotDribbledBallTooFarValidator(),
-            new BotInterferedPlacementValidator(),
-            new BotKickedBallTooFastValidator(),
-            new BotTooFastInStopValidator(),
-            new BoundaryCrossingValidator(),
-            new DefenderInDefenseAreaValidator(),
-            new DefenderTooCloseToKickPointValidator(),
-            new PenaltyKickFailedValidator(),
-            new PlacementSucceededValidator()            
-    );
+    private final List<RuleValidator> ruleValidators;
 
     private List<RuleValidator> activeValidators = new ArrayList<>();
     private final List<RuleValidator> disabledValidators = new ArrayList<>();
 
     private Game game;
 
+    private boolean verbose = true;
+
+    public Referee() {
+        this(createValidators());
+    }
+
+    /**
+     * @param ruleValidators the validators used by this referee, these should not be shared with other referees.
+     */
+    public Referee(List<RuleValidator> ruleValidators) {
+        this.ruleValidators = List.copyOf(ruleValidators);
+    }
+
+    /**
+     * @return a new instance of every validator.
+     */
+    public static List<RuleValidator> createValidators() {
+        return List.of(
+                new PossibleGoalValidator(), //First validator to give priority on checking this rule
+                new AimlessKickValidator(),
+                new AttackerDoubleTouchedBallValidator(),
+                new AttackerTooCloseToDefenseAreaValidator(),
+                new AttackerTouchedBallInDefenseAreaValidator(),
+                new BallLeftFieldGoalLineValidator(),
+                new BallLeftFieldTouchLineValidator(),
+                new BotCrashingValidator(),
+                new BotDribbledBallTooFarValidator(),
+                new BotInterferedPlacementValidator(),
+                new BotKickedBallTooFastValidator(),
+                new BotTooFastInStopValidator(),
+                new BoundaryCrossingValidator(),
+                new DefenderInDefenseAreaValidator(),
+                new DefenderTooCloseToKickPointValidator(),
+                new PenaltyKickFailedValidator(),
+                new PlacementSucceededValidator()
+        );
+    }
+
     public Game getGame() {
         return game;
     }
@@ -41,8 +62,46 @@ public class Referee {
     }
 
     public List<RuleViolation> validate() {
+        updateActiveValidators(game.getPassedStates());
+
+        List<RuleViolation> violations = new ArrayList<>();
+        for (RuleValidator validator : activeValidators) {
+            try {
+                RuleViolation violation = validator.validate(game);
+
+                if (violation != null) {
+                    violations.add(violation);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+
+                // Disable the validators that throw exceptions.
+                System.err.println("!! " + validator.getClass().getSimpleName() + " will now be deactivated.");
+                disabledValidators.add(validator);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Activate and reset the validators for a game state that changed without a new frame, e.g. because of a
+     * command received directly from the GameController. No validator is run.
+     *
+     * @param state the state of the game before it changed
+     */
+    public void changeState(GameState state) {
+        updateActiveValidators(List.of(state));
+    }
+
+    /**
+     * Update the validators that should be active in the current state, and reset the ones that have just been
+     * activated.
+     *
+     * @param passedStates the states passed since the validators were last updated
+     */
+    private void updateActiveValidators(List<GameState> passedStates) {
         // Make a list of validators that should be active.
-        List<RuleValidator> validators = RULE_VALIDATORS.stream().filter((validator) -> validator.isActive(game)).toList();
+        List<RuleValidator> validators = ruleValidators.stream().filter((validator) -> validator.isActive(game)).toList();
 
         // While these validators are active, retain the ones that should be disabled.
         disabledValidators.retainAll(validators);
@@ -51,33 +110,46 @@ public class Referee {
         validators = new ArrayList<>(validators);
         validators.removeAll(disabledValidators);
 
-        // Reset all the validators that have just been activated.
+        // Reset all the validators that have just been activated, or that were inactive in a state passed since the previous frame.
         List<RuleValidator> toReset = new ArrayList<>(validators);
-        toReset.removeAll(activeValidators);
+        toReset.removeAll(activeValidatorsInPassedStates(passedStates));
 
         for (RuleValidator validator : toReset) {
-            System.out.println("reset " + validator.getClass().getSimpleName());
+            if (verbose) {
+                System.out.println("reset " + validator.getClass().getSimpleName());
+            }
             validator.reset(game);
         }
 
         activeValidators = validators;
+    }
 
-        List<RuleViolation> violations = new ArrayList<>();
-        for (RuleValidator validator : activeValidators) {
-            try {
-                RuleViolation violation = validator.validate(game);
-
-                if (violation != null) {
-                    violations.add(violation);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
+    /**
+     * @return the validators that were active in the previous frame and in every state passed since then.
+     */
+    private List<RuleValidator> activeValidatorsInPassedStates(List<GameState> passedStates) {
+        if (passedStates.isEmpty()) {
+            return activeValidators;
+        }
 
-                // Disable the validators that throw exceptions.
-                System.err.println("!! " + validator.getClass().getSimpleName() + " will now be deactivated.");
-                disabledValidators.add(validator);
+        List<RuleValidator> validators = new ArrayList<>(activeValidators);
+        GameState state = game.getState();
+        try {
+            for (GameState passedState : passedStates) {
+                game.setState(passedState);
+                validators.removeIf((validator) -> !validator.isActive(game));
             }
+        } finally {
+            game.setState(state);
         }
-        return violations;
+        return validators;
+    }
+
+    public List<RuleValidator> getRuleValidators() {
+        return ruleValidators;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
     }
 }
@@ -0,0 +1,90 @@
+package nl.roboteamtwente.autoref;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.robocup.ssl.proto.SslGcRefereeMessage;
+
+import java.io.IOException;
+import java.net.*;
+import java.util.Arrays;
+
+/**
+ * Receives the referee messages the GameController multicasts, so a new command does not have to wait
+ * until the World relays it.
+ */
+public class RefereeConnection implements Runnable {
+    /**
+     * The multicast address and port the GameController publishes referee messages on by default.
+     */
+    public static final String DEFAULT_GROUP = "224.5.23.1";
+    public static final int DEFAULT_PORT = 10003;
+
+    private final String group;
+    private final int port;
+    private final String networkInterface;
+    private final SSLAutoRef ref;
+    private volatile MulticastSocket socket;
+
+    /**
+     * @param group            the multicast group
+     * @param port             the port
+     * @param networkInterface the name of the interface to receive on (e.g. lo), or null for the default interface
+     * @param ref              the AutoRef the messages are passed to
+     */
+    public RefereeConnection(String group, int port, String networkInterface, SSLAutoRef ref) {
+        this.group = group;
+        this.port = port;
+        this.networkInterface = networkInterface;
+        this.ref = ref;
+    }
+
+    /**
+     * Join the multicast group and process messages until the connection is closed.
+     */
+    public void connect() {
+        try (MulticastSocket socket = new MulticastSocket(port)) {
+            this.socket = socket;
+            NetworkInterface netIf = networkInterface != null ? NetworkInterface.getByName(networkInterface) : null;
+            if (networkInterface != null && netIf == null) {
+                System.err.println("Unknown network interface " + networkInterface + ", using the default interface");
+            }
+            socket.joinGroup(new InetSocketAddress(InetAddress.getByName(group), port), netIf);
+            listener();
+        } catch (IOException e) {
+            //the socket is closed by hand when the AutoRef stops
+            if (socket == null || !socket.isClosed()) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Receive and process messages
+     */
+    public void listener() throws IOException {
+        byte[] buffer = new byte[65536];
+        DatagramPacket datagram = new DatagramPacket(buffer, buffer.length);
+        while (!Thread.currentThread().isInterrupted()) {
+            socket.receive(datagram);
+            try {
+                SslGcRefereeMessage.SSL_Referee packet = SslGcRefereeMessage.SSL_Referee.parseFrom(Arrays.copyOf(datagram.getData(), datagram.getLength()));
+                ref.onRefereeMessage(packet);
+            } catch (InvalidProtocolBufferException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Close connection to the GameController multicast
+     */
+    public void close() {
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    @Override
+    public void run() {
+        connect();
+    }
+}
@@ -0,0 +1,131 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
+
+import java.util.*;
+
+/**
+ * Keeps track of which robots are in contact with each other, from frame to frame. A contact starts when the hulls of
+ * two robots get within the crash distance, and is kept up to date until they separate again, so a validator can
+ * judge the impact and how long robots have been pushing each other.
+ * <p>
+ * The robots are put in a grid with cells as large as the contact distance, so only the robots in neighbouring
+ * cells are compared, and every frame only updates the pairs that are in contact.
+ */
+public class RobotContactGraph {
+    /**
+     * Ids of robots are below this, the pair of two robots is a key made of both.
+     */
+    private static final int MAX_ROBOTS = 64;
+
+    private final Map<Long, List<Robot>> cells = new HashMap<>();
+    private final Map<Long, RobotContact> contacts = new HashMap<>();
+    private final Set<Long> seen = new HashSet<>();
+
+    /**
+     * Update the contacts with the robots of the current frame.
+     *
+     * @param game the game, with the robots of the current frame
+     * @return the contacts in the current frame, and the contacts that ended since the previous frame
+     */
+    public List<RobotContact> update(Game game) {
+        float crashDistance = game.getParameters().get(RuleParameter.BOT_CRASH_DISTANCE);
+        float cellSize = crashDistance;
+        for (Robot robot : game.getRobots()) {
+            cellSize = Math.max(cellSize, 2 * robot.getRadius() + crashDistance);
+        }
+
+        for (List<Robot> cell : cells.values()) {
+            cell.clear();
+        }
+        seen.clear();
+
+        List<RobotContact> current = new ArrayList<>();
+        for (Robot robot : game.getRobots()) {
+            int cx = (int) Math.floor(robot.getPosition().getX() / cellSize);
+            int cy = (int) Math.floor(robot.getPosition().getY() / cellSize);
+
+            //compare with the robots that are already in the grid, every pair is compared once
+            for (int x = cx - 1; x <= cx + 1; x++) {
+                for (int y = cy - 1; y <= cy + 1; y++) {
+                    List<Robot> cell = cells.get(cellKey(x, y));
+                    if (cell == null) {
+                        continue;
+                    }
+
+                    for (Robot other : cell) {
+                        RobotContact contact = compare(game, robot, other, crashDistance);
+                        if (contact != null) {
+                            current.add(contact);
+                        }
+                    }
+                }
+            }
+
+            cells.computeIfAbsent(cellKey(cx, cy), (key) -> new ArrayList<>()).add(robot);
+        }
+
+        //the pairs that were not seen in contact have separated
+        Iterator<Map.Entry<Long, RobotContact>> iterator = contacts.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, RobotContact> entry = iterator.next();
+            if (!seen.contains(entry.getKey())) {
+                entry.getValue().setEndTime(game.getTime());
+                current.add(entry.getValue());
+                iterator.remove();
+            }
+        }
+        return current;
+    }
+
+    private RobotContact compare(Game game, Robot robot, Robot other, float crashDistance) {
+        Vector2 position = robot.getPosition().xy();
+        Vector2 otherPosition = other.getPosition().xy();
+        float distance = position.distance(otherPosition);
+        float separation = distance - robot.getRadius() - other.getRadius();
+        if (separation > crashDistance) {
+            return null;
+        }
+
+        //the first robot of a pair is always the same, so the contact can be found again
+        Robot first = order(robot.getIdentifier()) < order(other.getIdentifier()) ? robot : other;
+        Robot second = first == robot ? other : robot;
+        long key = pairKey(first.getIdentifier(), second.getIdentifier());
+        seen.add(key);
+
+        RobotContact contact = contacts.get(key);
+        if (contact != null) {
+            contact.update(game.getTime(), separation);
+            return contact;
+        }
+
+        //the velocities of the frame before the impact
+        Vector2 firstVelocity = impactVelocity(game, first);
+        Vector2 secondVelocity = impactVelocity(game, second);
+        Vector2 direction = second.getPosition().xy().subtract(first.getPosition().xy());
+        float closingSpeed = direction.magnitude() > 0 ? firstVelocity.subtract(secondVelocity).dotProduct(direction) / direction.magnitude() : 0;
+
+        contact = new RobotContact(first.getIdentifier(), second.getIdentifier(), game.getTime(),
+                position.add(otherPosition).multiply(0.5f), distance, firstVelocity, secondVelocity, Math.max(closingSpeed, 0), separation);
+        contacts.put(key, contact);
+        return contact;
+    }
+
+    private static Vector2 impactVelocity(Game game, Robot robot) {
+        Robot previous = game.getPrevious().getRobot(robot.getIdentifier());
+        return previous != null ? previous.getVelocity().xy() : robot.getVelocity().xy();
+    }
+
+    private static int order(RobotIdentifier robot) {
+        return robot.teamColor().ordinal() * MAX_ROBOTS + robot.id();
+    }
+
+    private static long pairKey(RobotIdentifier first, RobotIdentifier second) {
+        return (long) order(first) * MAX_ROBOTS * TeamColor.values().length + order(second);
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
@@ -1,39 +1,90 @@
 package nl.roboteamtwente.autoref;
 
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
+import nl.roboteamtwente.autoref.parameters.RuleParameterFile;
+import nl.roboteamtwente.autoref.parameters.RuleParameters;
 import nl.roboteamtwente.proto.StateOuterClass;
 import nl.roboteamtwente.proto.WorldOuterClass;
 import nl.roboteamtwente.proto.WorldRobotOuterClass;
 
+import org.robocup.ssl.proto.SslGcGameEvent;
+import org.robocup.ssl.proto.SslGcRefereeMessage;
 import org.robocup.ssl.proto.SslVisionGeometry;
 
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.Arrays;
 
 public class SSLAutoRef {
-    private static final float BALL_TOUCHING_DISTANCE = 0.025f;
-    private static final float BALL_ANGLE_NOISE_RANGE = 5.0f;
+    /**
+     * Time after which a referee message received directly from the GameController is no longer used (in ns).
+     */
+    private static final long REFEREE_TIMEOUT = 1_000_000_000L;
 
     private final Referee referee;
+    private ViolationAggregator violationAggregator;
 
     private Thread worldThread;
     private GameControllerConnection gcConnection;
+    private PrivateKey gcPrivateKey;
+    private GameEventJournal gcJournal;
+    private FrameRecorder frameRecorder;
+    private Thread recorderThread;
+    private double maxEventAge = 5.0;
     private Thread gcThread;
 
-    private WorldConnection worldConnection;
+    private FrameSource frameSource;
+    private CameraTouchDetection cameraTouchDetection;
+    private final LineCrossingDetector lineCrossingDetector = new LineCrossingDetector();
+    private final ExitForecaster exitForecaster = new ExitForecaster(lineCrossingDetector);
+    private final RobotContactGraph robotContactGraph = new RobotContactGraph();
+    private final BallTrajectory ballTrajectory = new BallTrajectory();
+    private final KickSpeedEstimator kickSpeedEstimator = new KickSpeedEstimator();
+    private Touch trajectoryTouch;
+
+    private RefereeConnection refereeConnection;
+    private Thread refereeThread;
+    private SslGcRefereeMessage.SSL_Referee directReferee;
+    private long directRefereeReceived;
+    private StateOuterClass.State lastStatePacket;
+
+    private RuleParameterFile ruleParameterFile;
+    private Thread ruleParameterThread;
+    private Supplier<RuleParameters> ruleParameters = () -> RuleParameters.DEFAULT;
+
+    private ShadowValidation shadowValidation;
+    private final LatencyHistogram frameLatency = new LatencyHistogram();
+    private final FrameJitterBuffer frameJitterBuffer = new FrameJitterBuffer(0);
 
     private Consumer<RuleViolation> onViolation;
+    private Consumer<SslGcGameEvent.GameEvent> onGameEvent;
     private boolean autoConnect = false;
 
     private int commands = 0;
     private int nextTouchId = 0;
     private long time_counter = 0;
+    private boolean verbose = true;
 
     public SSLAutoRef() {
-        this.referee = new Referee();
+        this(new Referee());
+    }
+
+    /**
+     * @param referee the referee with the validators used by this AutoRef.
+     */
+    public SSLAutoRef(Referee referee) {
+        this.referee = referee;
+        this.violationAggregator = new ViolationAggregator();
+        this.violationAggregator.setVerbose(verbose);
     }
 
     /**
@@ -54,6 +105,9 @@ public class SSLAutoRef {
         game.setTime(world.getTime() / 1_000_000_000.0);
         game.setForceStarted(game.getPrevious().isForceStarted());
 
+        //pin the rule parameters for this frame, changes to the parameter file are picked up at the next frame
+        game.setParameters(getRuleParameters());
+
         //derive World packet
         deriveRefereeMessage(game, statePacket);
         deriveBall(game, world);
@@ -66,13 +120,17 @@ public class SSLAutoRef {
         }
         deriveTeamData(game, statePacket);
         deriveField(game, statePacket);
-        deriveTouch(game);
+        game.getLineCrossings().addAll(lineCrossingDetector.detect(game));
+        game.getRobotContacts().addAll(robotContactGraph.update(game));
+        deriveTouch(game, statePacket);
+        deriveTrajectory(game);
+        game.setExitForecast(exitForecaster.forecast(game));
 
         gameStateChanges(game);
 
         referee.setGame(game);
         time_counter += 1;
-        if (time_counter % 80 == 0) {
+        if (verbose && time_counter % 80 == 0) {
             String message = "AUTOREF ALIVE | ";
             if (game.isBallInPlay()) {
                 message += "Ball in play";
@@ -85,70 +143,66 @@ public class SSLAutoRef {
     }
 
     /**
-     * From the RefereeMessage, derive the command and the designated position
+     * From the RefereeMessage, derive the command and the designated position.
+     * The commands the World processed since the previous frame are replayed in order first, so a command
+     * that was replaced before the next frame still leaves its state transition.
      *
      * @param game        game
      * @param statePacket packet AutoRef got from World
      */
     private void deriveRefereeMessage(Game game, StateOuterClass.State statePacket) {
         game.setKickPoint(game.getPrevious().getKickPoint());
-        if (game.getState() == null || statePacket.getReferee().getCommandCounter() != commands) {
-            game.setState(game.getPrevious().getState());
-
-            commands = statePacket.getReferee().getCommandCounter();
+        game.setState(game.getPrevious().getState());
+        if (!statePacket.hasReferee()) {
+            //no referee message received yet, the game goes on as in the previous frame
+            Game previous = game.getPrevious();
+            game.setCommand(previous.getCommand());
+            game.setNextCommand(previous.getNextCommand());
+            game.setStateForTeam(previous.getStateForTeam());
+            game.getDesignatedPosition().setX(previous.getDesignatedPosition().getX());
+            game.getDesignatedPosition().setY(previous.getDesignatedPosition().getY());
+            return;
+        }
+        applyRefereeMessage(game, statePacket);
+    }
 
-            switch (statePacket.getReferee().getCommand()) {
-                case HALT -> {
-                    // Any state can lead to halt
-                    game.setState(GameState.HALT);
-                }
-                case STOP -> {
-                    // Stop command always stops the game
-                    game.setState(GameState.STOP);
-                }
-                case BALL_PLACEMENT_BLUE, BALL_PLACEMENT_YELLOW -> {
-                    // Ball placement is always triggered.
-                    game.setState(GameState.BALL_PLACEMENT);
-                }
-                case FORCE_START -> {
-                    // Force starts makes the game jump to start.
-                    game.setState(GameState.RUN);
-                }
-                case NORMAL_START -> {
-                    // Normal start starts the current stage of the game.
-                    if (game.getPrevious().getState() == GameState.PREPARE_KICKOFF) {
-                        game.setKickPoint(game.getPrevious().getBall().getPosition().xy());
-                        game.setState(GameState.KICKOFF);
-                    } else if (game.getPrevious().getState() == GameState.PREPARE_PENALTY) {
-                        game.setState(GameState.PENALTY);
-                    }
-                }
-                //noinspection deprecation
-                case INDIRECT_FREE_YELLOW, INDIRECT_FREE_BLUE, DIRECT_FREE_YELLOW, DIRECT_FREE_BLUE -> {
-                    // Free kick is always triggered.
-                    game.setKickPoint(game.getPrevious().getBall().getPosition().xy());
-                    game.setState(GameState.FREE_KICK);
-                }
-                case PREPARE_KICKOFF_YELLOW, PREPARE_KICKOFF_BLUE -> {
-                    // Prepare kickoff is always triggered.
-                    game.setState(GameState.PREPARE_KICKOFF);
-                }
-                case PREPARE_PENALTY_YELLOW, PREPARE_PENALTY_BLUE -> {
-                    // Prepare penalty is always triggered.
-                    game.setState(GameState.PREPARE_PENALTY);
+    /**
+     * Apply the commands of the RefereeMessage that were not applied yet to the state of the game, and derive the
+     * rest of the RefereeMessage.
+     *
+     * @param game        game, with the state before the commands
+     * @param statePacket packet with the RefereeMessage
+     */
+    private void applyRefereeMessage(Game game, StateOuterClass.State statePacket) {
+        SslGcRefereeMessage.SSL_Referee referee = statePacket.getReferee();
+        if (referee.getCommandCounter() != commands) {
+            for (SslGcRefereeMessage.SSL_Referee processed : statePacket.getProcessedRefereePacketsList()) {
+                //only the commands between the last one applied and the current one, the counter restarts with the GameController
+                if (processed.getCommandCounter() <= commands || processed.getCommandCounter() >= referee.getCommandCounter()) {
+                    continue;
                 }
-                case TIMEOUT_YELLOW, TIMEOUT_BLUE -> {
-                    // Timeouts are always triggered.
-                    game.setState(GameState.TIMEOUT);
+
+                commands = processed.getCommandCounter();
+                GameState state = game.getState();
+                applyCommand(game, processed.getCommand());
+                if (game.getState() != state) {
+                    game.getPassedStates().add(game.getState());
                 }
             }
-        } else {
-            game.setState(game.getPrevious().getState());
+
+            commands = referee.getCommandCounter();
+            applyCommand(game, referee.getCommand());
+
+            //a state that is entered again by the current command was not left in between
+            List<GameState> passedStates = game.getPassedStates();
+            if (!passedStates.isEmpty() && passedStates.get(passedStates.size() - 1) == game.getState()) {
+                passedStates.remove(passedStates.size() - 1);
+            }
         }
 
         //check if game state needs to be set to running
-        if (statePacket.getReferee().hasCurrentActionTimeRemaining()) {
-            int timeRemaining = statePacket.getReferee().getCurrentActionTimeRemaining();
+        if (referee.hasCurrentActionTimeRemaining()) {
+            int timeRemaining = referee.getCurrentActionTimeRemaining();
             if (timeRemaining < 0) {
                 if (game.getState() == GameState.KICKOFF || game.getState() == GameState.FREE_KICK) {
                     game.setState(GameState.RUN);
@@ -160,11 +214,11 @@ public class SSLAutoRef {
             }
         }
 
-        game.setCommand(statePacket.getReferee().getCommand());
-        game.setNextCommand(statePacket.getReferee().getNextCommand());
+        game.setCommand(referee.getCommand());
+        game.setNextCommand(referee.getNextCommand());
 
         //set stateForTeam
-        game.setStateForTeam(switch (statePacket.getReferee().getCommand()) {
+        game.setStateForTeam(switch (referee.getCommand()) {
             //noinspection deprecation
             case GOAL_YELLOW, PREPARE_KICKOFF_YELLOW, PREPARE_PENALTY_YELLOW, INDIRECT_FREE_YELLOW, TIMEOUT_YELLOW, BALL_PLACEMENT_YELLOW, DIRECT_FREE_YELLOW ->
                     TeamColor.YELLOW;
@@ -175,9 +229,63 @@ public class SSLAutoRef {
         });
 
         //TODO divide by / 1000.0f if the scale is not correct
-        game.getDesignatedPosition().setX(statePacket.getReferee().getDesignatedPositionOrBuilder().getX() / 1000.0f);
-        game.getDesignatedPosition().setY(statePacket.getReferee().getDesignatedPositionOrBuilder().getY() / 1000.0f);
+        game.getDesignatedPosition().setX(referee.getDesignatedPositionOrBuilder().getX() / 1000.0f);
+        game.getDesignatedPosition().setY(referee.getDesignatedPositionOrBuilder().getY() / 1000.0f);
+
+    }
 
+    /**
+     * Apply a new referee command to the state of the game.
+     *
+     * @param game    game, with the state before the command
+     * @param command the new command
+     */
+    private void applyCommand(Game game, SslGcRefereeMessage.SSL_Referee.Command command) {
+        switch (command) {
+            case HALT -> {
+                // Any state can lead to halt
+                game.setState(GameState.HALT);
+            }
+            case STOP -> {
+                // Stop command always stops the game
+                game.setState(GameState.STOP);
+            }
+            case BALL_PLACEMENT_BLUE, BALL_PLACEMENT_YELLOW -> {
+                // Ball placement is always triggered.
+                game.setState(GameState.BALL_PLACEMENT);
+            }
+            case FORCE_START -> {
+                // Force starts makes the game jump to start.
+                game.setState(GameState.RUN);
+            }
+            case NORMAL_START -> {
+                // Normal start starts the current stage of the game.
+                if (game.getState() == GameState.PREPARE_KICKOFF) {
+                    game.setKickPoint(game.getPrevious().getBall().getPosition().xy());
+                    game.setState(GameState.KICKOFF);
+                } else if (game.getState() == GameState.PREPARE_PENALTY) {
+                    game.setState(GameState.PENALTY);
+                }
+            }
+            //noinspection deprecation
+            case INDIRECT_FREE_YELLOW, INDIRECT_FREE_BLUE, DIRECT_FREE_YELLOW, DIRECT_FREE_BLUE -> {
+                // Free kick is always triggered.
+                game.setKickPoint(game.getPrevious().getBall().getPosition().xy());
+                game.setState(GameState.FREE_KICK);
+            }
+            case PREPARE_KICKOFF_YELLOW, PREPARE_KICKOFF_BLUE -> {
+                // Prepare kickoff is always triggered.
+                game.setState(GameState.PREPARE_KICKOFF);
+            }
+            case PREPARE_PENALTY_YELLOW, PREPARE_PENALTY_BLUE -> {
+                // Prepare penalty is always triggered.
+                game.setState(GameState.PREPARE_PENALTY);
+            }
+            case TIMEOUT_YELLOW, TIMEOUT_BLUE -> {
+                // Timeouts are always triggered.
+                game.setState(GameState.TIMEOUT);
+            }
+        }
     }
 
     /**
@@ -214,7 +322,9 @@ public class SSLAutoRef {
             // we change the state to running
             game.setState(GameState.RUN);
 
-            System.out.println("ball kicked into play");
+            if (verbose) {
+                System.out.println("ball kicked into play");
+            }
         }
     }
 
@@ -258,6 +368,15 @@ public class SSLAutoRef {
         game.getTeam(TeamColor.BLUE).setRobotHeight(statePacket.getBlueRobotParameters().getParameters().getHeight());
         game.getTeam(TeamColor.YELLOW).setRobotHeight(statePacket.getYellowRobotParameters().getParameters().getHeight());
 
+        //without a referee message the goalkeepers and sides of the previous frame are kept
+        if (!statePacket.hasReferee()) {
+            for (TeamColor color : TeamColor.values()) {
+                game.getTeam(color).setGoalkeeperId(game.getPrevious().getTeam(color).getGoalkeeperId());
+                game.getTeam(color).setSide(game.getPrevious().getTeam(color).getSide());
+            }
+            return;
+        }
+
         game.getTeam(TeamColor.BLUE).setGoalkeeperId(statePacket.getReferee().getBlue().getGoalkeeper());
         game.getTeam(TeamColor.YELLOW).setGoalkeeperId(statePacket.getReferee().getYellow().getGoalkeeper());
 
@@ -316,7 +435,7 @@ public class SSLAutoRef {
      *
      * @param game game
      */
-    private void deriveTouch(Game game) {
+    private void deriveTouch(Game game, StateOuterClass.State statePacket) {
         // copy variables from previous game
         game.getBall().setLastTouchStarted(game.getPrevious().getBall().getLastTouchStarted());
         game.setKickType(game.getPrevious().getKickType());
@@ -333,6 +452,9 @@ public class SSLAutoRef {
         Vector3 ballPosition = ball.getPosition();
         int robotsCloseToBall = 0;
 
+        float ballTouchingDistance = game.getParameters().get(RuleParameter.BALL_TOUCHING_DISTANCE);
+        float ballAngleNoiseRange = game.getParameters().get(RuleParameter.BALL_ANGLE_NOISE_RANGE);
+
         //check if ball has randomly teleported
         if (game.getBall().getLastTouchStarted() != null && !game.getBall().getLastTouchStarted().isFinished()) { // a robot is still touching the ball
             Touch touch_ = ball.getLastTouchStarted();
@@ -352,6 +474,10 @@ public class SSLAutoRef {
         }
 
         if (ball.isVisible()) {
+            //touches between the World frames, seen by the cameras
+            Map<RobotIdentifier, CameraTouchDetection.Contact> contacts = cameraTouchDetection != null
+                    ? cameraTouchDetection.findContacts(game, statePacket) : Map.of();
+
             Ball previousBall = game.getPrevious().getBall();
             float angle = 0.0f;
             float distance = 0.0f;
@@ -362,7 +488,9 @@ public class SSLAutoRef {
             }
 
             // checks for ball bouncing of robots
-            if (ball.getVelocity().xy().magnitude() > 0.01f && ball.getPosition().getZ() < 0.15f) {
+            // a chipped ball flies over the robots, even when a single frame does not show its height
+            if (ball.getVelocity().xy().magnitude() > 0.01f && ball.getPosition().getZ() < 0.15f
+                    && !ballTrajectory.isAirborne(game.getTime(), game.getParameters().get(RuleParameter.CHIP_HEIGHT))) {
                 for (Robot robot : game.getRobots()) {
                     // case: ball is rolling, robot has velocity in the same direct to try and grab the ball.
                     // but ball bounces off the robot
@@ -380,7 +508,7 @@ public class SSLAutoRef {
                     }
 
                     // case: ball bounces of a robot, changing its direction of travel
-                    if (angle > BALL_ANGLE_NOISE_RANGE && angle < 360.0f - BALL_ANGLE_NOISE_RANGE && !previousBall.getRobotsTouching().contains(robot)) {
+                    if (angle > ballAngleNoiseRange && angle < 360.0f - ballAngleNoiseRange && !previousBall.getRobotsTouching().contains(robot)) {
                         for (int i = 0; i <= 100; i++) {
                             Vector2 ballPosAdjusted = previousBall.getPosition().xy().add(previousBall.getVelocity().xy().multiply(i/100.0f));
                             distance = robot.getPosition().xy().distance(ballPosAdjusted);
@@ -408,10 +536,11 @@ public class SSLAutoRef {
 
                 Touch touch = robot.getTouch();
                 distance = robot.getPosition().xy().distance(ballPosition.xy());
+                CameraTouchDetection.Contact contact = contacts.get(robot.getIdentifier());
 
                 // detect if there's a touch
-                if ((distance <= robot.getTeam().getRobotRadius() + BALL_TOUCHING_DISTANCE && ball.getPosition().getZ()
-                        <= robot.getTeam().getRobotHeight() + BALL_TOUCHING_DISTANCE) || robot.getIdentifier().equals(deflectedBy)) {
+                if ((distance <= robot.getTeam().getRobotRadius() + ballTouchingDistance && ball.getPosition().getZ()
+                        <= robot.getTeam().getRobotHeight() + ballTouchingDistance) || robot.getIdentifier().equals(deflectedBy)) {
                     ball.getRobotsTouching().add(robot);
                     // it just started touching ball, either when its the first frame or when
                     // in the previous frame the robot was not touching the ball.
@@ -421,13 +550,28 @@ public class SSLAutoRef {
                     robot.setJustTouchedBall(false);
                     robot.setTouch(null);
 
+                    if (touch == null && contact != null) {
+                        // the touch started and ended between two frames
+                        touch = new Touch(nextTouchId++, contact.startLocation(), contact.startTime(), previousBall.getVelocity(), robotsCloseToBall, robot.getIdentifier());
+                        ball.setLastTouchStarted(touch);
+                        game.getTouches().add(touch);
+
+                        if (verbose) {
+                            System.out.println("touch #" + touch.getId() + " by " + robot.getIdentifier() + " between frames at " + contact.startLocation().getX() + ", " + contact.startLocation().getY());
+                        }
+                    }
+
                     if (touch != null) {
-                        // we update the touch to include the end position
-                        touch.setEndLocation(ballPosition);
-                        touch.setEndTime(game.getTime());
+                        // we update the touch to include the end position, the last time a camera saw the touch if that was later
+                        boolean seenLater = contact != null && contact.endTime() >= touch.getStartTime();
+                        touch.setEndLocation(seenLater ? contact.endLocation() : ballPosition);
+                        touch.updatePath(touch.getEndLocation());
+                        touch.setEndTime(seenLater ? contact.endTime() : game.getTime());
                         touch.setEndVelocity(ball.getVelocity());
 
-                        System.out.println("End of touch #" + touch.getId() + " at [x,y] :" + touch.getEndLocation().getX() + ", " + touch.getEndLocation().getY());
+                        if (verbose) {
+                            System.out.println("End of touch #" + touch.getId() + " at [x,y] :" + touch.getEndLocation().getX() + ", " + touch.getEndLocation().getY());
+                        }
 
                         // if this touch is the kick into play, we update that too
                         if (Objects.equals(touch, game.getKickIntoPlay())) {
@@ -437,16 +581,22 @@ public class SSLAutoRef {
                 }
 
                 if (robot.hasJustTouchedBall()) {
-                    // we create a new partial touch
-                    touch = new Touch(nextTouchId++, ballPosition, game.getTime(), ball.getVelocity(), robotsCloseToBall, robot.getIdentifier());
+                    // we create a new partial touch, from when a camera first saw it if that was earlier
+                    touch = contact != null
+                            ? new Touch(nextTouchId++, contact.startLocation(), contact.startTime(), previousBall.getVelocity(), robotsCloseToBall, robot.getIdentifier())
+                            : new Touch(nextTouchId++, ballPosition, game.getTime(), ball.getVelocity(), robotsCloseToBall, robot.getIdentifier());
                     ball.setLastTouchStarted(touch);
                     robot.setTouch(touch);
                     game.getTouches().add(touch);
-                    
-                    
-                    System.out.println("touch #" + touch.getId() + " by " + robot.getIdentifier() + " at " + ball.getPosition().getX() + ", " + ball.getPosition().getY());
+
+                    if (verbose) {
+                        System.out.println("touch #" + touch.getId() + " by " + robot.getIdentifier() + " at " + ball.getPosition().getX() + ", " + ball.getPosition().getY());
+                    }
                 } else if (touch != null) {
                     touch.updatePercentages(ball.isVisible(), robotsCloseToBall);
+                    if (!touch.isFinished()) {
+                        touch.updatePath(ballPosition);
+                    }
                 }
 
                 // to conclude, we add the touch to the game
@@ -459,25 +609,81 @@ public class SSLAutoRef {
         }
     }
 
+    /**
+     * Fit the flight of the ball since the last finished touch, and store the kick speed, whether the ball
+     * was chipped, how high it went and where it lands in that touch.
+     *
+     * @param game game
+     */
+    private void deriveTrajectory(Game game) {
+        game.setBallTrajectory(ballTrajectory);
+
+        Ball ball = game.getBall();
+        Touch touch = game.getLastFinishedTouch();
+        if (touch == null || !ball.getRobotsTouching().isEmpty()) {
+            trajectoryTouch = null;
+            ballTrajectory.reset(game.getTime());
+            return;
+        }
+
+        //the flight starts where the touch ended
+        if (touch != trajectoryTouch) {
+            trajectoryTouch = touch;
+            ballTrajectory.reset(touch.getEndTime());
+            ballTrajectory.add(touch.getEndTime(), touch.getEndLocation());
+            kickSpeedEstimator.reset(touch.getEndTime());
+            kickSpeedEstimator.add(touch.getEndTime(), touch.getEndLocation());
+        }
+        //in the frame the touch ended, the ball is already added at the end of the touch
+        if (ball.isVisible() && game.getTime() != touch.getEndTime()) {
+            ballTrajectory.add(game.getTime(), ball.getPosition());
+            kickSpeedEstimator.add(game.getTime(), ball.getPosition());
+        }
+
+        touch.setKickSpeed(kickSpeedEstimator.getSpeed(), kickSpeedEstimator.getConfidence(), kickSpeedEstimator.isComplete());
+
+        boolean chip = ballTrajectory.isChip(game.getParameters().get(RuleParameter.CHIP_HEIGHT));
+        touch.setChip(chip);
+        touch.setMaxBallHeight(ballTrajectory.getMaxHeight());
+        touch.setLandingPoint(chip ? ballTrajectory.getLandingPoint() : null);
+    }
+
     /**
      * Check for any GameState changes and take.
      * If there is a change, store the time of the change (current time).
-     * If state changed and previous was HALT or STOP, reset touches
+     * If state changed and previous was HALT or STOP, reset touches.
+     * States the game passed through since the previous frame count as changes as well.
      *
      * @param game game
      */
     private void gameStateChanges(Game game) {
+        List<GameState> states = new ArrayList<>();
+        states.add(game.getPrevious().getState());
+        states.addAll(game.getPassedStates());
+        states.add(game.getState());
+
         //set TimeLastGameStateChange
-        if (game.getState() != game.getPrevious().getState()) {
-            System.out.println("game state: " + game.getPrevious().getState() + " -> " + game.getState());
+        if (states.size() > 2 || game.getState() != game.getPrevious().getState()) {
+            if (verbose) {
+                System.out.println("game state: " + states.stream().map(GameState::toString).collect(Collectors.joining(" -> ")));
+            }
             game.setTimeLastGameStateChange(game.getTime());
         } else {
             game.setTimeLastGameStateChange(game.getPrevious().getTimeLastGameStateChange());
         }
 
-        //reset touches if previous game state was HALT or STOP and game state changed
-        if (game.getPrevious().getState() != game.getState() && EnumSet.of(GameState.STOP, GameState.HALT).contains(game.getPrevious().getState())) {
-            System.out.println("reset");
+        //reset touches if a game state HALT or STOP was left
+        boolean leftStop = false;
+        for (int i = 1; i < states.size(); i++) {
+            if (states.get(i - 1) != states.get(i) && EnumSet.of(GameState.STOP, GameState.HALT).contains(states.get(i - 1))) {
+                leftStop = true;
+            }
+        }
+
+        if (leftStop) {
+            if (verbose) {
+                System.out.println("reset");
+            }
 
             game.getBall().setLastTouchStarted(null);
             game.setKickType(null);
@@ -503,12 +709,38 @@ public class SSLAutoRef {
         gcConnection.setIp(ipGameController);
         gcConnection.setPort(portGameController);
         gcConnection.setAutoConnect(autoConnect);
+        if (gcPrivateKey != null) {
+            gcConnection.setPrivateKey(gcPrivateKey);
+        }
+        gcConnection.setJournal(gcJournal);
+        gcConnection.setMaxEventAge((long) (maxEventAge * 1000));
         gcThread = new Thread(gcConnection);
         gcThread.start();
 
-        //setup connection with World
-        worldConnection = new WorldConnection(ipWorld, portWorld, this);
-        worldThread = new Thread(worldConnection);
+        if (frameRecorder != null) {
+            recorderThread = new Thread(frameRecorder, "frame-recorder");
+            recorderThread.start();
+        }
+
+        //watch the rule parameter file for changes
+        if (ruleParameterFile != null) {
+            ruleParameterThread = new Thread(ruleParameterFile);
+            ruleParameterThread.setDaemon(true);
+            ruleParameterThread.start();
+        }
+
+        //receive referee messages directly from the GameController
+        if (refereeConnection != null) {
+            refereeThread = new Thread(refereeConnection);
+            refereeThread.setDaemon(true);
+            refereeThread.start();
+        }
+
+        //setup connection with World, unless frames come from another source
+        if (frameSource == null) {
+            frameSource = new WorldConnection(ipWorld, portWorld, this);
+        }
+        worldThread = new Thread(frameSource);
         worldThread.start();
     }
 
@@ -517,7 +749,30 @@ public class SSLAutoRef {
      *
      * @param packet
      */
-    public void checkViolations(StateOuterClass.State packet) {
+    public synchronized void checkViolations(StateOuterClass.State packet) {
+        for (StateOuterClass.State frame : frameJitterBuffer.offer(packet)) {
+            processFrame(frame);
+        }
+    }
+
+    /**
+     * Process the frames that are still held by the jitter buffer, after the last frame of the frame source.
+     */
+    public synchronized void flushFrames() {
+        for (StateOuterClass.State frame : frameJitterBuffer.flush()) {
+            processFrame(frame);
+        }
+    }
+
+    /**
+     * Process a frame that is in order and check for violations
+     *
+     * @param packet
+     */
+    private void processFrame(StateOuterClass.State packet) {
+        long start = System.nanoTime();
+        lastStatePacket = packet;
+        packet = withLatestRefereeMessage(packet);
         processWorldState(packet);
         //check for any violations
         List<RuleViolation> violations = getReferee().validate();
@@ -526,30 +781,144 @@ public class SSLAutoRef {
             if (onViolation != null) {
                 onViolation.accept(violation);
             }
+        }
 
-            if (isAutoConnect()) {
-                gcConnection.addToQueue(violation.toPacket());
+        //merge redundant events before they are sent to the GameController
+        if (isAutoConnect() || onGameEvent != null) {
+            for (SslGcGameEvent.GameEvent gameEvent : violationAggregator.aggregateViolations(violations, getReferee().getGame().getTime())) {
+                if (isAutoConnect()) {
+                    gcConnection.addToQueue(gameEvent);
+                }
+                if (onGameEvent != null) {
+                    onGameEvent.accept(gameEvent);
+                }
             }
         }
+        frameLatency.recordSince(start);
+
+        if (frameRecorder != null) {
+            frameRecorder.record(packet, getReferee().getGame(), violations);
+        }
+
+        //candidate validators run on their own thread, after the live referee is done
+        if (shadowValidation != null) {
+            shadowValidation.submit(packet);
+        }
+    }
+
+    /**
+     * Process a referee message received directly from the GameController. When it carries a new command,
+     * the command is applied to the game of the last World frame, so the game state changes without waiting for
+     * the World to relay the command.
+     *
+     * @param message the referee message
+     */
+    public synchronized void onRefereeMessage(SslGcRefereeMessage.SSL_Referee message) {
+        directReferee = message;
+        directRefereeReceived = System.nanoTime();
+
+        if (lastStatePacket != null && referee.getGame() != null && message.getCommandCounter() != commands
+                && withLatestRefereeMessage(lastStatePacket).getReferee() == message) {
+            applyRefereeTransition(withLatestRefereeMessage(lastStatePacket));
+        }
+    }
+
+    /**
+     * Apply a new command to the game of the last frame. Only the state transition is applied, the frame is not
+     * validated, recorded or tracked again, since it was already processed at the same World time.
+     *
+     * @param packet the last packet from the World, with the new referee message
+     */
+    private void applyRefereeTransition(StateOuterClass.State packet) {
+        Game game = referee.getGame();
+        GameState state = game.getState();
+
+        //the state before the command is passed, unless the frame already ended in it
+        List<GameState> passedStates = game.getPassedStates();
+        GameState last = passedStates.isEmpty() ? game.getPrevious().getState() : passedStates.get(passedStates.size() - 1);
+        if (state != last) {
+            passedStates.add(state);
+        }
+
+        applyRefereeMessage(game, packet);
+        gameStateChanges(game);
+        referee.changeState(state);
+    }
+
+    /**
+     * Reconcile the referee message relayed by the World with the one received directly from the GameController:
+     * the message with the highest command counter is used, and for the same command the most recent one. A packet
+     * without a referee message of its own, as from a tracker, gets the last direct message however old it is.
+     *
+     * @param packet the packet from the World
+     * @return the packet with the referee message that should be used
+     */
+    private StateOuterClass.State withLatestRefereeMessage(StateOuterClass.State packet) {
+        if (directReferee == null) {
+            return packet;
+        }
+        if (!packet.hasReferee()) {
+            return packet.toBuilder().setReferee(directReferee).build();
+        }
+        if (System.nanoTime() - directRefereeReceived > REFEREE_TIMEOUT) {
+            return packet;
+        }
+
+        SslGcRefereeMessage.SSL_Referee relayed = packet.getReferee();
+        boolean newer = !packet.hasReferee()
+                || directReferee.getCommandCounter() > relayed.getCommandCounter()
+                || (directReferee.getCommandCounter() == relayed.getCommandCounter() && directReferee.getPacketTimestamp() > relayed.getPacketTimestamp());
+        return newer ? packet.toBuilder().setReferee(directReferee).build() : packet;
     }
 
     public void stop() {
+        //frames still held by the jitter buffer are processed before anything is closed
+        frameSource.close();
+        worldThread.interrupt();
+        flushFrames();
+
         gcConnection.setAutoConnect(false);
-        try {
-            //make sure sleep is longer than any sleep in GameControllerConnection.java
-            Thread.sleep(gcConnection.getReconnectSleep() + 3000);
-        } catch (InterruptedException e) {
-        }
         gcConnection.disconnect();
         gcThread.interrupt();
-        worldConnection.close();
-        worldThread.interrupt();
+        if (verbose) {
+            System.out.println("GameController queue: max depth " + gcConnection.getMaxQueueDepth() + ", time in queue " + gcConnection.getQueueLatency());
+            for (GameEventPriority priority : GameEventPriority.values()) {
+                System.out.println("    " + priority + ": " + gcConnection.getQueueLatency(priority));
+            }
+            System.out.println("GameController reconnects: " + gcConnection.getReconnectLatency());
+            System.out.println(gcConnection.getMetrics().getReport());
+            System.out.println("Frames: " + frameJitterBuffer);
+            System.out.println("Ball exit forecast: " + exitForecaster);
+        }
+        if (refereeConnection != null) {
+            refereeConnection.close();
+            refereeThread.interrupt();
+        }
+        if (ruleParameterThread != null) {
+            ruleParameterThread.interrupt();
+        }
+        if (shadowValidation != null) {
+            shadowValidation.stop();
+        }
+        if (frameRecorder != null) {
+            frameRecorder.close();
+            if (verbose) {
+                System.out.println("Recording: " + frameRecorder);
+            }
+        }
     }
 
     public void setOnViolation(Consumer<RuleViolation> onViolation) {
         this.onViolation = onViolation;
     }
 
+    /**
+     * @param onGameEvent receives the game events for the GameController, also when not connected to it
+     */
+    public void setOnGameEvent(Consumer<SslGcGameEvent.GameEvent> onGameEvent) {
+        this.onGameEvent = onGameEvent;
+    }
+
     public void setAutoConnect(boolean autoConnect) {
         if (gcConnection != null) {
             gcConnection.setAutoConnect(autoConnect);
@@ -558,6 +927,184 @@ public class SSLAutoRef {
         this.autoConnect = autoConnect;
     }
 
+    /**
+     * Load the rule parameters from a file, the file is watched for changes once the AutoRef is started.
+     *
+     * @param file the parameter file
+     */
+    public void setRuleParameterFile(Path file) {
+        this.ruleParameterFile = new RuleParameterFile(file);
+        this.ruleParameters = ruleParameterFile::getParameters;
+    }
+
+    /**
+     * Sign the messages to the GameController with the given key instead of a generated one.
+     *
+     * @param privateKey the private key, see {@link GameControllerConnection#loadPrivateKey}
+     */
+    public void setGameControllerKey(PrivateKey privateKey) {
+        this.gcPrivateKey = privateKey;
+    }
+
+    /**
+     * Keep the game events sent to the GameController in a journal, so events that were not acknowledged
+     * are sent again after the AutoRef is restarted.
+     *
+     * @param journal the journal
+     */
+    public void setGameEventJournal(GameEventJournal journal) {
+        this.gcJournal = journal;
+    }
+
+    /**
+     * Record every processed frame, with the touches, game state changes and violations derived from it.
+     * This must be called before the AutoRef is started.
+     *
+     * @param recorder the recorder
+     */
+    public void setFrameRecorder(FrameRecorder recorder) {
+        this.frameRecorder = recorder;
+    }
+
+    /**
+     * @param maxEventAge game events that could not be sent within this time (in seconds) are discarded
+     */
+    public void setMaxEventAge(double maxEventAge) {
+        this.maxEventAge = maxEventAge;
+    }
+
+    /**
+     * Also receive the referee messages multicast by the GameController, this must be called before the AutoRef is started.
+     *
+     * @param group            the multicast group, see {@link RefereeConnection#DEFAULT_GROUP}
+     * @param port             the port, see {@link RefereeConnection#DEFAULT_PORT}
+     * @param networkInterface the name of the interface to receive on, or null for the default interface
+     */
+    public void setRefereeMulticast(String group, int port, String networkInterface) {
+        this.refereeConnection = new RefereeConnection(group, port, networkInterface, this);
+    }
+
+    /**
+     * @param milliseconds how long frames are held to put frames that arrive out of order back in order,
+     *                     in World time. Every frame is processed later by this delay.
+     */
+    public synchronized void setFrameDelay(double milliseconds) {
+        frameJitterBuffer.setDelay((long) (milliseconds * 1_000_000));
+    }
+
+    /**
+     * @return the buffer that puts frames in order, with the number of duplicate, late and missing frames
+     */
+    public FrameJitterBuffer getFrameJitterBuffer() {
+        return frameJitterBuffer;
+    }
+
+    /**
+     * Shadow validators use the same setting when they are added after this.
+     *
+     * @param enabled whether touches are also detected in the raw camera frames the World processed, so touches
+     *                between two World frames are found
+     */
+    public void setCameraTouchDetection(boolean enabled) {
+        this.cameraTouchDetection = enabled ? new CameraTouchDetection() : null;
+    }
+
+    public boolean isCameraTouchDetection() {
+        return cameraTouchDetection != null;
+    }
+
+    /**
+     * Receive frames from another source than the World, this has to be set before the AutoRef is started.
+     *
+     * @param frameSource the source of the frames, which passes them to {@link #checkViolations}
+     */
+    public void setFrameSource(FrameSource frameSource) {
+        this.frameSource = frameSource;
+    }
+
+    /**
+     * Receive frames from an SSL-Vision tracker instead of the World. The tracker does not publish referee
+     * messages, so these should be received from the GameController with {@link #setRefereeMulticast}.
+     *
+     * @param group            the multicast group, see {@link TrackerConnection#DEFAULT_GROUP}
+     * @param port             the port of the tracker, see {@link TrackerConnection#DEFAULT_PORT}
+     * @param visionPort       the port of vision for the field geometry, see {@link TrackerConnection#DEFAULT_VISION_PORT}
+     * @param networkInterface the name of the interface to receive on, or null for the default interface
+     */
+    public void setTrackerMulticast(String group, int port, int visionPort, String networkInterface) {
+        setFrameSource(new TrackerConnection(group, port, visionPort, networkInterface, this));
+    }
+
+    /**
+     * Receive frames and referee messages from a simulated GameController in CI mode instead of the World,
+     * every frame is processed before the next one is sent.
+     *
+     * @param port the port to listen on, see {@link CiConnection#DEFAULT_PORT}
+     */
+    public void setCiPort(int port) {
+        setFrameSource(new CiConnection(port, this));
+    }
+
+    void setRuleParameters(Supplier<RuleParameters> ruleParameters) {
+        this.ruleParameters = ruleParameters;
+    }
+
+    /**
+     * @return the latest snapshot of the rule parameters.
+     */
+    public RuleParameters getRuleParameters() {
+        return ruleParameters.get();
+    }
+
+    /**
+     * Run a candidate validator in shadow mode, next to a fresh instance of the production validator.
+     * Its results are only logged and never sent to the GameController.
+     *
+     * @param candidate  the candidate validator.
+     * @param production a fresh instance of the validator it should replace.
+     */
+    public void addShadowValidator(RuleValidator candidate, RuleValidator production) {
+        if (shadowValidation == null) {
+            shadowValidation = new ShadowValidation(this);
+        }
+        shadowValidation.addCandidate(candidate, production);
+    }
+
+    public ShadowValidation getShadowValidation() {
+        return shadowValidation;
+    }
+
+    /**
+     * @return the time it takes to process a frame and validate it, excluding shadow validators.
+     */
+    public LatencyHistogram getFrameLatency() {
+        return frameLatency;
+    }
+
+    public ExitForecaster getExitForecaster() {
+        return exitForecaster;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+        referee.setVerbose(verbose);
+        violationAggregator.setVerbose(verbose);
+    }
+
+    /**
+     * Wait until the game events of the frames processed so far have been acknowledged by the GameController.
+     *
+     * @param timeout the maximum time to wait, in ms
+     * @return whether the events were acknowledged within the timeout, true if the AutoRef is not connected
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean awaitGameEvents(long timeout) throws InterruptedException {
+        if (!isAutoConnect() || gcConnection == null) {
+            return true;
+        }
+        return gcConnection.awaitAcknowledged(timeout);
+    }
+
     public boolean isAutoConnect() {
         return autoConnect;
     }
@@ -566,11 +1113,34 @@ public class SSLAutoRef {
         return referee;
     }
 
+    public ViolationAggregator getViolationAggregator() {
+        return violationAggregator;
+    }
+
+    /**
+     * Aggregate the violations with other rules than {@link ViolationAggregator#DEFAULT_RULES}, the events that
+     * were let through so far are forgotten.
+     *
+     * @param rules the rules used to decide which events are redundant, these should not form a cycle.
+     */
+    public void setAggregationRules(List<ViolationAggregator.Rule> rules) {
+        ViolationAggregator aggregator = new ViolationAggregator(rules);
+        aggregator.setVerbose(verbose);
+        this.violationAggregator = aggregator;
+    }
+
     public boolean isWorldConnected() {
         // FIXME: There is no way to check a ZMQ socket if its connected.
         return true;
     }
 
+    /**
+     * @return the latencies and outcomes of the game events sent to the GameController, or null before the AutoRef is started.
+     */
+    public GameControllerMetrics getGameControllerMetrics() {
+        return gcConnection != null ? gcConnection.getMetrics() : null;
+    }
+
     public boolean isGCConnected() {
         return gcConnection.isConnected();
     }
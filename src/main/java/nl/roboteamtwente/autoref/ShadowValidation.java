@@ -0,0 +1,175 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.autoref.model.Game;
+import nl.roboteamtwente.proto.StateOuterClass;
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs candidate versions of validators in shadow mode: next to a fresh instance of the validator they
+ * should replace, on the same frames as the live referee, without sending anything to the GameController.
+ * <p>
+ * The shadow validators run on their own thread. The live referee only hands over the (immutable) packet it
+ * received, from which the shadow pipeline derives its own game, so the shadow validators never touch the
+ * objects used by the live referee. When the shadow thread cannot keep up, frames are dropped instead of
+ * queued indefinitely.
+ */
+public class ShadowValidation {
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final SSLAutoRef pipeline;
+    private final List<Candidate> candidates = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor executor;
+
+    private final LatencyHistogram submitLatency = new LatencyHistogram();
+    private final LatencyHistogram derivationLatency = new LatencyHistogram();
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    /**
+     * @param live the live AutoRef, the shadow pipeline uses the same rule parameters.
+     */
+    public ShadowValidation(SSLAutoRef live) {
+        this.pipeline = new SSLAutoRef(new Referee(List.of()));
+        this.pipeline.setRuleParameters(live::getRuleParameters);
+        this.pipeline.setVerbose(false);
+        this.pipeline.setCameraTouchDetection(live.isCameraTouchDetection());
+
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), (runnable) -> {
+            Thread thread = new Thread(runnable, "shadow-validation");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, (runnable, executor) -> droppedFrames.incrementAndGet());
+    }
+
+    /**
+     * Add a candidate validator that is compared against the validator it should replace.
+     *
+     * @param candidate  the candidate validator.
+     * @param production a fresh instance of the validator used in production, not shared with the live referee.
+     */
+    public void addCandidate(RuleValidator candidate, RuleValidator production) {
+        candidates.add(new Candidate(candidate.getClass().getSimpleName() + " vs " + production.getClass().getSimpleName(), production, candidate));
+    }
+
+    /**
+     * Hand a frame to the shadow validators, this returns immediately.
+     *
+     * @param statePacket the packet the live referee processed.
+     */
+    public void submit(StateOuterClass.State statePacket) {
+        long start = System.nanoTime();
+        if (!executor.isShutdown()) {
+            executor.execute(() -> process(statePacket));
+        }
+        submitLatency.recordSince(start);
+    }
+
+    private void process(StateOuterClass.State statePacket) {
+        try {
+            long start = System.nanoTime();
+            pipeline.processWorldState(statePacket);
+            derivationLatency.recordSince(start);
+
+            Game game = pipeline.getReferee().getGame();
+            for (Candidate candidate : candidates) {
+                candidate.compare(game);
+            }
+        } catch (Exception e) {
+            System.err.println("[shadow] failed to process frame: " + e);
+        }
+    }
+
+    /**
+     * Stop the shadow thread and print a summary.
+     */
+    public void stop() {
+        executor.shutdownNow();
+        System.out.println(getReport());
+    }
+
+    /**
+     * @return a summary of the differences and the cost of the shadow validators.
+     */
+    public String getReport() {
+        StringBuilder builder = new StringBuilder("[shadow] submit: ").append(submitLatency)
+                .append("\n[shadow] derivation: ").append(derivationLatency)
+                .append("\n[shadow] dropped frames: ").append(droppedFrames.get());
+
+        for (Candidate candidate : candidates) {
+            builder.append("\n[shadow] ").append(candidate.name).append(": ")
+                    .append(candidate.mismatches.get()).append(" mismatching frames")
+                    .append("\n    production: ").append(candidate.productionLatency)
+                    .append("\n    candidate:  ").append(candidate.candidateLatency);
+        }
+        return builder.toString();
+    }
+
+    public LatencyHistogram getSubmitLatency() {
+        return submitLatency;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * Create a validator by its class name.
+     *
+     * @param name the fully qualified class name, or the simple name of a class in the validators package.
+     * @return a new instance of the validator.
+     * @throws IllegalArgumentException if the class is not a validator or cannot be instantiated.
+     */
+    public static RuleValidator createValidator(String name) {
+        String className = name.contains(".") ? name : "nl.roboteamtwente.autoref.validators." + name;
+        try {
+            Object validator = Class.forName(className).getDeclaredConstructor().newInstance();
+            if (validator instanceof RuleValidator ruleValidator) {
+                return ruleValidator;
+            }
+            throw new IllegalArgumentException(className + " is not a RuleValidator");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot create validator " + className, e);
+        }
+    }
+
+    private static final class Candidate {
+        private final String name;
+        private final Referee production;
+        private final Referee candidate;
+        private final LatencyHistogram productionLatency = new LatencyHistogram();
+        private final LatencyHistogram candidateLatency = new LatencyHistogram();
+        private final AtomicLong mismatches = new AtomicLong();
+
+        private Candidate(String name, RuleValidator production, RuleValidator candidate) {
+            this.name = name;
+            this.production = new Referee(List.of(production));
+            this.candidate = new Referee(List.of(candidate));
+            this.production.setVerbose(false);
+            this.candidate.setVerbose(false);
+        }
+
+        private void compare(Game game) {
+            production.setGame(game);
+            candidate.setGame(game);
+
+            long start = System.nanoTime();
+            List<RuleViolation> expected = production.validate();
+            productionLatency.recordSince(start);
+
+            start = System.nanoTime();
+            List<RuleViolation> actual = candidate.validate();
+            candidateLatency.recordSince(start);
+
+            List<SslGcGameEvent.GameEvent> expectedEvents = expected.stream().map(RuleViolation::toPacket).toList();
+            List<SslGcGameEvent.GameEvent> actualEvents = actual.stream().map(RuleViolation::toPacket).toList();
+            if (!expectedEvents.equals(actualEvents)) {
+                mismatches.incrementAndGet();
+                System.out.println("[shadow] " + name + " differs at " + String.format("%.2f", game.getTime()) + "s: production " + expected + ", candidate " + actual);
+            }
+        }
+    }
+}
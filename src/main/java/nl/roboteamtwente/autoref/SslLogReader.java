@@ -0,0 +1,128 @@
+package nl.roboteamtwente.autoref;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import nl.roboteamtwente.proto.StateOuterClass;
+import org.robocup.ssl.proto.SslGcRefereeMessage;
+import org.robocup.ssl.proto.SslVisionGeometry;
+import org.robocup.ssl.proto.SslVisionWrapper;
+import org.robocup.ssl.proto.SslVisionWrapperTracked;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads an official SSL log file, as written by the GameController and the log recorders at a tournament, and turns
+ * it into the frames the AutoRef processes. The frames are made from the tracker packets in the log, with the field
+ * geometry of vision and the referee messages of the GameController. Logs without tracker packets give no frames.
+ * <p>
+ * A log file starts with {@code SSL_LOG_FILE} and a version, followed by messages of a receive timestamp, a type,
+ * a size and the message itself. A log file ending with {@code .gz} is decompressed.
+ */
+public class SslLogReader {
+    private static final String HEADER = "SSL_LOG_FILE";
+
+    private static final int MESSAGE_REFEREE = 3;
+    private static final int MESSAGE_VISION = 4;
+    private static final int MESSAGE_TRACKER = 5;
+    private static final int MESSAGE_INDEX = 6;
+
+    private final Path file;
+
+    /**
+     * @param file the log file
+     */
+    public SslLogReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Read the log and pass every frame to the consumer.
+     *
+     * @param consumer the consumer of the frames, in the order of the log
+     * @return the number of frames
+     * @throws IOException if the file cannot be read or is not an SSL log file
+     */
+    public long forEachFrame(Consumer<StateOuterClass.State> consumer) throws IOException {
+        InputStream stream = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            stream = new GZIPInputStream(stream, 1 << 16);
+        }
+
+        try (DataInputStream in = new DataInputStream(stream)) {
+            byte[] header = new byte[HEADER.length()];
+            if (in.readNBytes(header, 0, header.length) < header.length || !HEADER.equals(new String(header, StandardCharsets.US_ASCII))) {
+                throw new IOException(file + " is not an SSL log file");
+            }
+            in.readInt();
+
+            TrackedFrameConverter converter = new TrackedFrameConverter();
+            SslVisionGeometry.SSL_GeometryData geometry = null;
+            SslGcRefereeMessage.SSL_Referee referee = null;
+            List<SslGcRefereeMessage.SSL_Referee> processed = new ArrayList<>();
+            String source = null;
+            long frames = 0;
+
+            byte[] buffer = new byte[1 << 16];
+            while (true) {
+                int type;
+                int size;
+                try {
+                    in.readLong();
+                    type = in.readInt();
+                    size = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                //the index is at the end of the log
+                if (type == MESSAGE_INDEX || size < 0) {
+                    break;
+                }
+                if (size > buffer.length) {
+                    buffer = new byte[size];
+                }
+                in.readFully(buffer, 0, size);
+
+                try {
+                    switch (type) {
+                        case MESSAGE_REFEREE -> {
+                            referee = SslGcRefereeMessage.SSL_Referee.parseFrom(ByteBuffer.wrap(buffer, 0, size));
+                            processed.add(referee);
+                        }
+                        case MESSAGE_VISION -> {
+                            SslVisionWrapper.SSL_WrapperPacket packet = SslVisionWrapper.SSL_WrapperPacket.parseFrom(ByteBuffer.wrap(buffer, 0, size));
+                            if (packet.hasGeometry()) {
+                                geometry = packet.getGeometry();
+                            }
+                        }
+                        case MESSAGE_TRACKER -> {
+                            SslVisionWrapperTracked.TrackerWrapperPacket packet = SslVisionWrapperTracked.TrackerWrapperPacket.parseFrom(ByteBuffer.wrap(buffer, 0, size));
+                            //a log can have several trackers, follow the first one
+                            if (source == null) {
+                                source = packet.getUuid();
+                            }
+                            if (!packet.getUuid().equals(source) || !packet.hasTrackedFrame() || geometry == null || referee == null) {
+                                continue;
+                            }
+
+                            consumer.accept(converter.toState(packet.getTrackedFrame(), geometry, referee, processed));
+                            processed.clear();
+                            frames++;
+                        }
+                        default -> {
+                        }
+                    }
+                } catch (InvalidProtocolBufferException e) {
+                    //a damaged message, the log goes on
+                }
+            }
+            return frames;
+        }
+    }
+}
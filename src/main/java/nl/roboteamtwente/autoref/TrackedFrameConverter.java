@@ -0,0 +1,89 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.proto.RobotParametersOuterClass;
+import nl.roboteamtwente.proto.StateOuterClass;
+import nl.roboteamtwente.proto.Vector2F;
+import nl.roboteamtwente.proto.WorldBallOuterClass;
+import nl.roboteamtwente.proto.WorldOuterClass;
+import nl.roboteamtwente.proto.WorldRobotOuterClass;
+import org.robocup.ssl.proto.SslGcCommon;
+import org.robocup.ssl.proto.SslGcRefereeMessage;
+import org.robocup.ssl.proto.SslVisionDetectionTracked;
+import org.robocup.ssl.proto.SslVisionGeometry;
+
+import java.util.List;
+
+/**
+ * Converts the tracked frames of an SSL-Vision tracker to the State message of the World.
+ * Both use meters and seconds. The robots are given the default size of division B, as the tracker does not
+ * publish it. The builders are reused for every frame, so a converter should only be used by one thread.
+ */
+class TrackedFrameConverter {
+    private static final float ROBOT_RADIUS = 0.09f;
+    private static final float ROBOT_HEIGHT = 0.15f;
+
+    private final StateOuterClass.State.Builder state = StateOuterClass.State.newBuilder();
+    private final WorldOuterClass.World.Builder world = WorldOuterClass.World.newBuilder();
+    private final WorldBallOuterClass.WorldBall.Builder ball = WorldBallOuterClass.WorldBall.newBuilder();
+    private final WorldRobotOuterClass.WorldRobot.Builder robot = WorldRobotOuterClass.WorldRobot.newBuilder();
+    private final Vector2F.Vector2f.Builder vector = Vector2F.Vector2f.newBuilder();
+
+    TrackedFrameConverter() {
+        RobotParametersOuterClass.TeamParameters parameters = RobotParametersOuterClass.TeamParameters.newBuilder()
+                .setParameters(RobotParametersOuterClass.RobotParameters.newBuilder().setRadius(ROBOT_RADIUS).setHeight(ROBOT_HEIGHT))
+                .build();
+        state.setBlueRobotParameters(parameters);
+        state.setYellowRobotParameters(parameters);
+    }
+
+    /**
+     * @param frame     the tracked frame
+     * @param geometry  the field geometry
+     * @param referee   the current referee message, or null if it is received in another way
+     * @param processed the referee messages received since the previous frame, in order
+     * @return the state
+     */
+    StateOuterClass.State toState(SslVisionDetectionTracked.TrackedFrame frame, SslVisionGeometry.SSL_GeometryData geometry,
+                                  SslGcRefereeMessage.SSL_Referee referee, List<SslGcRefereeMessage.SSL_Referee> processed) {
+        world.clear();
+        world.setTime((long) (frame.getTimestamp() * 1_000_000_000.0));
+        world.setId(frame.getFrameNumber());
+
+        ball.clear();
+        if (frame.getBallsCount() > 0) {
+            SslVisionDetectionTracked.TrackedBall trackedBall = frame.getBalls(0);
+            ball.setPos(vector.setX(trackedBall.getPos().getX()).setY(trackedBall.getPos().getY()));
+            ball.setZ(trackedBall.getPos().getZ());
+            ball.setVel(vector.setX(trackedBall.getVel().getX()).setY(trackedBall.getVel().getY()));
+            ball.setZVel(trackedBall.getVel().getZ());
+            ball.setVisible(!trackedBall.hasVisibility() || trackedBall.getVisibility() > 0.0f);
+        }
+        world.setBall(ball);
+
+        for (SslVisionDetectionTracked.TrackedRobot trackedRobot : frame.getRobotsList()) {
+            robot.clear();
+            robot.setId(trackedRobot.getRobotId().getId());
+            robot.setPos(vector.setX(trackedRobot.getPos().getX()).setY(trackedRobot.getPos().getY()));
+            robot.setAngle(trackedRobot.getOrientation());
+            robot.setVel(vector.setX(trackedRobot.getVel().getX()).setY(trackedRobot.getVel().getY()));
+            robot.setW(trackedRobot.getVelAngular());
+
+            if (trackedRobot.getRobotId().getTeam() == SslGcCommon.Team.BLUE) {
+                world.addBlue(robot);
+            } else if (trackedRobot.getRobotId().getTeam() == SslGcCommon.Team.YELLOW) {
+                world.addYellow(robot);
+            }
+        }
+
+        state.setCommandExtrapolatedWorld(world);
+        state.setField(geometry);
+        if (referee != null) {
+            state.setReferee(referee);
+        } else {
+            state.clearReferee();
+        }
+        state.clearProcessedRefereePackets();
+        state.addAllProcessedRefereePackets(processed);
+        return state.build();
+    }
+}
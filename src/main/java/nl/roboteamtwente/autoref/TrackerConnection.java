@@ -0,0 +1,159 @@
+package nl.roboteamtwente.autoref;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.robocup.ssl.proto.SslVisionGeometry;
+import org.robocup.ssl.proto.SslVisionWrapper;
+import org.robocup.ssl.proto.SslVisionWrapperTracked;
+
+import java.io.IOException;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Receives the frames of an SSL-Vision tracker (TrackerWrapperPacket), so the AutoRef can run without the World.
+ * <p>
+ * The field geometry is taken from the vision multicast, and the referee messages should be received directly
+ * from the GameController (see {@link RefereeConnection}), because the tracker does not publish them.
+ */
+public class TrackerConnection implements FrameSource {
+    /**
+     * The multicast address and ports of the tracker and vision by default.
+     */
+    public static final String DEFAULT_GROUP = "224.5.23.2";
+    public static final int DEFAULT_PORT = 10010;
+    public static final int DEFAULT_VISION_PORT = 10006;
+
+    private final String group;
+    private final int port;
+    private final int visionPort;
+    private final String networkInterface;
+    private final SSLAutoRef ref;
+
+    private volatile MulticastSocket socket;
+    private volatile MulticastSocket visionSocket;
+    private volatile SslVisionGeometry.SSL_GeometryData geometry;
+    private String source;
+    private final TrackedFrameConverter converter = new TrackedFrameConverter();
+
+    /**
+     * @param group            the multicast group of the tracker and vision
+     * @param port             the port of the tracker
+     * @param visionPort       the port of vision, which publishes the field geometry
+     * @param networkInterface the name of the interface to receive on (e.g. lo), or null for the default interface
+     * @param ref              the AutoRef the frames are passed to
+     */
+    public TrackerConnection(String group, int port, int visionPort, String networkInterface, SSLAutoRef ref) {
+        this.group = group;
+        this.port = port;
+        this.visionPort = visionPort;
+        this.networkInterface = networkInterface;
+        this.ref = ref;
+    }
+
+    /**
+     * Join the multicast groups and process frames until the connection is closed.
+     */
+    public void connect() {
+        Thread visionThread = new Thread(this::receiveGeometry, "vision-geometry");
+        visionThread.setDaemon(true);
+        visionThread.start();
+
+        try (MulticastSocket socket = join(port)) {
+            this.socket = socket;
+            listener();
+        } catch (IOException e) {
+            //the socket is closed by hand when the AutoRef stops
+            if (socket == null || !socket.isClosed()) {
+                e.printStackTrace();
+            }
+        } finally {
+            visionThread.interrupt();
+        }
+    }
+
+    private MulticastSocket join(int port) throws IOException {
+        MulticastSocket socket = new MulticastSocket(port);
+        NetworkInterface netIf = networkInterface != null ? NetworkInterface.getByName(networkInterface) : null;
+        if (networkInterface != null && netIf == null) {
+            System.err.println("Unknown network interface " + networkInterface + ", using the default interface");
+        }
+        socket.joinGroup(new InetSocketAddress(InetAddress.getByName(group), port), netIf);
+        return socket;
+    }
+
+    /**
+     * Receive and process tracker frames, frames are dropped until the field geometry is known.
+     */
+    public void listener() throws IOException {
+        byte[] buffer = new byte[65536];
+        DatagramPacket datagram = new DatagramPacket(buffer, buffer.length);
+        while (!Thread.currentThread().isInterrupted()) {
+            datagram.setLength(buffer.length);
+            socket.receive(datagram);
+            try {
+                SslVisionWrapperTracked.TrackerWrapperPacket packet = SslVisionWrapperTracked.TrackerWrapperPacket.parseFrom(
+                        ByteBuffer.wrap(datagram.getData(), datagram.getOffset(), datagram.getLength()));
+
+                //several trackers can publish on the same group, follow the first one
+                if (source == null) {
+                    source = packet.getUuid();
+                    System.out.println("Using tracker " + packet.getSourceName() + " (" + source + ")");
+                }
+                if (!packet.getUuid().equals(source) || !packet.hasTrackedFrame() || geometry == null) {
+                    continue;
+                }
+
+                ref.checkViolations(converter.toState(packet.getTrackedFrame(), geometry, null, List.of()));
+            } catch (InvalidProtocolBufferException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Receive the field geometry from vision until the connection is closed.
+     */
+    private void receiveGeometry() {
+        try (MulticastSocket visionSocket = join(visionPort)) {
+            this.visionSocket = visionSocket;
+            byte[] buffer = new byte[65536];
+            DatagramPacket datagram = new DatagramPacket(buffer, buffer.length);
+            while (!Thread.currentThread().isInterrupted()) {
+                datagram.setLength(buffer.length);
+                visionSocket.receive(datagram);
+                try {
+                    SslVisionWrapper.SSL_WrapperPacket packet = SslVisionWrapper.SSL_WrapperPacket.parseFrom(
+                            ByteBuffer.wrap(datagram.getData(), datagram.getOffset(), datagram.getLength()));
+                    if (packet.hasGeometry()) {
+                        geometry = packet.getGeometry();
+                    }
+                } catch (InvalidProtocolBufferException e) {
+                    e.printStackTrace();
+                }
+            }
+        } catch (IOException e) {
+            if (visionSocket == null || !visionSocket.isClosed()) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Close connection to the tracker and vision multicast
+     */
+    @Override
+    public void close() {
+        if (socket != null) {
+            socket.close();
+        }
+        if (visionSocket != null) {
+            visionSocket.close();
+        }
+    }
+
+    @Override
+    public void run() {
+        connect();
+    }
+}
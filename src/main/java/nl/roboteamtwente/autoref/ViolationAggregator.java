@@ -0,0 +1,208 @@
+package nl.roboteamtwente.autoref;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import org.robocup.ssl.proto.SslGcCommon;
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.util.*;
+
+/**
+ * Short-horizon aggregation stage between the referee and the GameController connection.
+ * <p>
+ * Several validators can report the same situation, e.g. a ball leaving the field over the goal line can
+ * raise a possible goal, an aimless kick, a ball left field and a boundary crossing. The aggregator keeps a
+ * short history of the events that were let through and drops every event that is suppressed by one of its
+ * rules, so only one event per situation is signed and sent to the GameController.
+ */
+public class ViolationAggregator {
+    private static final double DEFAULT_WINDOW = 2.0;
+
+    /**
+     * The rules used when no other rules are given.
+     */
+    public static final List<Rule> DEFAULT_RULES = List.of(
+            Rule.supersede(SslGcGameEvent.GameEvent.Type.POSSIBLE_GOAL, DEFAULT_WINDOW,
+                    SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_GOAL_LINE,
+                    SslGcGameEvent.GameEvent.Type.AIMLESS_KICK,
+                    SslGcGameEvent.GameEvent.Type.BOUNDARY_CROSSING),
+            Rule.supersede(SslGcGameEvent.GameEvent.Type.AIMLESS_KICK, DEFAULT_WINDOW,
+                    SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_GOAL_LINE,
+                    SslGcGameEvent.GameEvent.Type.BOUNDARY_CROSSING),
+            Rule.supersede(SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_GOAL_LINE, DEFAULT_WINDOW,
+                    SslGcGameEvent.GameEvent.Type.BOUNDARY_CROSSING),
+            Rule.supersede(SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_TOUCH_LINE, DEFAULT_WINDOW,
+                    SslGcGameEvent.GameEvent.Type.BOUNDARY_CROSSING),
+            Rule.deduplicate(SslGcGameEvent.GameEvent.Type.POSSIBLE_GOAL, DEFAULT_WINDOW),
+            Rule.deduplicate(SslGcGameEvent.GameEvent.Type.AIMLESS_KICK, DEFAULT_WINDOW),
+            Rule.deduplicate(SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_GOAL_LINE, DEFAULT_WINDOW),
+            Rule.deduplicate(SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_TOUCH_LINE, DEFAULT_WINDOW),
+            Rule.deduplicate(SslGcGameEvent.GameEvent.Type.BOUNDARY_CROSSING, DEFAULT_WINDOW)
+    );
+
+    private final List<Rule> rules;
+    private final double horizon;
+
+    /**
+     * Events that were let through, oldest first.
+     */
+    private final Deque<Entry> history = new ArrayDeque<>();
+
+    private long suppressed = 0;
+    private boolean verbose = false;
+
+    public ViolationAggregator() {
+        this(DEFAULT_RULES);
+    }
+
+    /**
+     * @param rules the rules used to decide which events are redundant, these should not form a cycle.
+     */
+    public ViolationAggregator(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        this.horizon = rules.stream().mapToDouble(Rule::window).max().orElse(0.0);
+    }
+
+    /**
+     * Filter the events raised in a single frame.
+     *
+     * @param events the events raised by the referee in this frame.
+     * @param time   the time of the frame in seconds.
+     * @return the events that should be sent to the GameController, in their original order.
+     */
+    public List<SslGcGameEvent.GameEvent> aggregate(List<SslGcGameEvent.GameEvent> events, double time) {
+        while (!history.isEmpty() && (time - history.peekFirst().time() > horizon || history.peekFirst().time() > time)) {
+            history.removeFirst();
+        }
+
+        List<Entry> batch = new ArrayList<>(events.size());
+        for (SslGcGameEvent.GameEvent event : events) {
+            batch.add(new Entry(event.getType(), getTeam(event), time));
+        }
+
+        List<SslGcGameEvent.GameEvent> result = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Entry candidate = batch.get(i);
+            if (isSuppressed(candidate, batch)) {
+                suppressed++;
+                if (verbose) {
+                    System.out.println("suppressed " + candidate.type() + " (" + candidate.team() + ")");
+                }
+                continue;
+            }
+
+            history.addLast(candidate);
+            result.add(events.get(i));
+        }
+
+        return result;
+    }
+
+    /**
+     * Convenience method to aggregate the violations raised by the referee.
+     *
+     * @param violations the violations raised in this frame.
+     * @param time       the time of the frame in seconds.
+     * @return the packets that should be sent to the GameController.
+     */
+    public List<SslGcGameEvent.GameEvent> aggregateViolations(List<RuleViolation> violations, double time) {
+        return aggregate(violations.stream().map(RuleViolation::toPacket).toList(), time);
+    }
+
+    /**
+     * Check whether an event is suppressed by an event that was already let through, or by a
+     * dominating event of a different type in the same frame.
+     */
+    private boolean isSuppressed(Entry candidate, List<Entry> batch) {
+        for (Rule rule : rules) {
+            if (!rule.suppresses().contains(candidate.type())) {
+                continue;
+            }
+
+            for (Entry entry : history) {
+                if (rule.matches(entry, candidate)) {
+                    return true;
+                }
+            }
+
+            for (Entry entry : batch) {
+                if (entry != candidate && entry.type() != candidate.type() && rule.matches(entry, candidate)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the rules used to decide which events are redundant.
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @param verbose whether to print the events that are suppressed.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * @return the number of events that have been suppressed so far.
+     */
+    public long getSuppressedCount() {
+        return suppressed;
+    }
+
+    /**
+     * Find the team that caused an event, by looking for a by_team field in the event payload.
+     *
+     * @param event the game event.
+     * @return the team or UNKNOWN if the event has no team.
+     */
+    private static SslGcCommon.Team getTeam(SslGcGameEvent.GameEvent event) {
+        if (event.getEventCase() == SslGcGameEvent.GameEvent.EventCase.EVENT_NOT_SET) {
+            return SslGcCommon.Team.UNKNOWN;
+        }
+
+        Descriptors.FieldDescriptor eventField = SslGcGameEvent.GameEvent.getDescriptor().findFieldByNumber(event.getEventCase().getNumber());
+        Message payload = (Message) event.getField(eventField);
+        Descriptors.FieldDescriptor teamField = payload.getDescriptorForType().findFieldByName("by_team");
+        if (teamField == null || !payload.hasField(teamField)) {
+            return SslGcCommon.Team.UNKNOWN;
+        }
+
+        return SslGcCommon.Team.valueOf((Descriptors.EnumValueDescriptor) payload.getField(teamField));
+    }
+
+    private record Entry(SslGcGameEvent.GameEvent.Type type, SslGcCommon.Team team, double time) {
+    }
+
+    /**
+     * An aggregation rule: an event of the given type suppresses events of the suppressed types that are
+     * raised within the window after it.
+     *
+     * @param type         the dominating event type.
+     * @param suppresses   the event types that are suppressed.
+     * @param window       the time in seconds the rule is applied after the dominating event.
+     * @param sameTeamOnly whether the rule only applies to events of the same team.
+     */
+    public record Rule(SslGcGameEvent.GameEvent.Type type, Set<SslGcGameEvent.GameEvent.Type> suppresses,
+                       double window, boolean sameTeamOnly) {
+        public static Rule supersede(SslGcGameEvent.GameEvent.Type type, double window, SslGcGameEvent.GameEvent.Type... suppresses) {
+            return new Rule(type, EnumSet.copyOf(Arrays.asList(suppresses)), window, false);
+        }
+
+        public static Rule deduplicate(SslGcGameEvent.GameEvent.Type type, double window) {
+            return new Rule(type, EnumSet.of(type), window, true);
+        }
+
+        private boolean matches(Entry dominant, Entry candidate) {
+            return dominant.type() == type
+                    && candidate.time() - dominant.time() <= window
+                    && (!sameTeamOnly || dominant.team() == candidate.team());
+        }
+    }
+}
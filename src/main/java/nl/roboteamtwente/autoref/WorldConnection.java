@@ -7,7 +7,10 @@ import org.zeromq.ZContext;
 import org.zeromq.ZMQ;
 import org.zeromq.ZMQException;
 
-public class WorldConnection implements Runnable {
+/**
+ * Receives the State messages the RoboTeam World publishes over ZMQ.
+ */
+public class WorldConnection implements FrameSource {
     private final String ip;
     private final int port;
     private ZMQ.Socket worldSocket;
@@ -55,6 +58,7 @@ public class WorldConnection implements Runnable {
     /**
      * Close connection to world
      */
+    @Override
     public void close() {
         try {
             worldSocket.close();
@@ -0,0 +1,208 @@
+package nl.roboteamtwente.autoref.model;
+
+/**
+ * An online least-squares fit of the flight of the ball since it was last kicked, over a sliding window of the
+ * latest observations: a straight line for x(t) and y(t), and a parabola under gravity for z(t).
+ * <p>
+ * Adding an observation only updates running sums, so it takes constant time and does not allocate. The
+ * times are relative to the kick, which keeps the sums small. Once the ball has landed it bounces or rolls and
+ * no longer follows the parabola, so the fit of the height and the landing point are kept until the next kick.
+ */
+public class BallTrajectory {
+    public static final float GRAVITY = 9.81f;
+
+    private static final int WINDOW = 32;
+    private static final int MIN_OBSERVATIONS = 4;
+
+    /**
+     * Below this height in meters an observation after the predicted landing counts as landed.
+     */
+    private static final float GROUND_HEIGHT = 0.02f;
+
+    private final double[] times = new double[WINDOW];
+    private final double[] xs = new double[WINDOW];
+    private final double[] ys = new double[WINDOW];
+    //the height plus the fall due to gravity, which is linear in time, or NaN when not part of the fit
+    private final double[] zs = new double[WINDOW];
+    private int count;
+    private int next;
+
+    private double origin;
+    private double st, stt, sx, stx, sy, sty;
+    private int nz;
+    private double szt, sztt, sz, stz;
+    private float maxHeight;
+    private boolean landed;
+    private double landingX, landingY;
+
+    /**
+     * Start a new flight, e.g. when the ball is kicked.
+     *
+     * @param time the time of the kick
+     */
+    public void reset(double time) {
+        origin = time;
+        count = 0;
+        next = 0;
+        st = stt = sx = stx = sy = sty = 0;
+        nz = 0;
+        szt = sztt = sz = stz = 0;
+        maxHeight = 0;
+        landed = false;
+    }
+
+    /**
+     * @param time     the time of the observation
+     * @param position the position of the ball
+     */
+    public void add(double time, Vector3 position) {
+        double t = time - origin;
+        maxHeight = Math.max(maxHeight, position.getZ());
+        if (!landed && nz >= MIN_OBSERVATIONS && t > getLandingTime() - origin && position.getZ() < GROUND_HEIGHT) {
+            landed = true;
+            landingX = fitX(getLandingTime() - origin);
+            landingY = fitY(getLandingTime() - origin);
+        }
+
+        if (count == WINDOW) {
+            remove(next);
+        } else {
+            count++;
+        }
+
+        double z = landed ? Double.NaN : position.getZ() + GRAVITY / 2 * t * t;
+        times[next] = t;
+        xs[next] = position.getX();
+        ys[next] = position.getY();
+        zs[next] = z;
+        next = (next + 1) % WINDOW;
+
+        st += t;
+        stt += t * t;
+        sx += position.getX();
+        stx += t * position.getX();
+        sy += position.getY();
+        sty += t * position.getY();
+        if (!landed) {
+            nz++;
+            szt += t;
+            sztt += t * t;
+            sz += z;
+            stz += t * z;
+        }
+    }
+
+    private void remove(int i) {
+        double t = times[i];
+        st -= t;
+        stt -= t * t;
+        sx -= xs[i];
+        stx -= t * xs[i];
+        sy -= ys[i];
+        sty -= t * ys[i];
+        //after the landing the fit of the height is final
+        if (!landed && !Double.isNaN(zs[i])) {
+            nz--;
+            szt -= t;
+            sztt -= t * t;
+            sz -= zs[i];
+            stz -= t * zs[i];
+        }
+    }
+
+    /**
+     * @return the slope of the least-squares line through the sums, or 0 if it is not determined
+     */
+    private static double slope(int n, double st, double stt, double sv, double stv) {
+        double determinant = n * stt - st * st;
+        return Math.abs(determinant) < 1e-12 ? 0 : (n * stv - st * sv) / determinant;
+    }
+
+    private double fitX(double t) {
+        double velocity = slope(count, st, stt, sx, stx);
+        return (sx - velocity * st) / count + velocity * t;
+    }
+
+    private double fitY(double t) {
+        double velocity = slope(count, st, stt, sy, sty);
+        return (sy - velocity * st) / count + velocity * t;
+    }
+
+    private double verticalVelocity() {
+        return slope(nz, szt, sztt, sz, stz);
+    }
+
+    private double launchHeight() {
+        return nz == 0 ? 0 : (sz - verticalVelocity() * szt) / nz;
+    }
+
+    /**
+     * @return true if the height of the ball is fitted over enough observations
+     */
+    public boolean isFitted() {
+        return nz >= MIN_OBSERVATIONS;
+    }
+
+    /**
+     * @param minHeight the minimum height in meters of a chip
+     * @return true if the ball was chipped, i.e. the fitted flight reaches at least the given height
+     */
+    public boolean isChip(float minHeight) {
+        return isFitted() && getApexHeight() >= minHeight;
+    }
+
+    /**
+     * @param time      the time
+     * @param minHeight the minimum height in meters of a chip
+     * @return true if the ball was chipped and has not landed yet at the given time
+     */
+    public boolean isAirborne(double time, float minHeight) {
+        return !landed && isChip(minHeight) && time < getLandingTime();
+    }
+
+    /**
+     * @return the highest point of the fitted flight in meters
+     */
+    public float getApexHeight() {
+        double velocity = Math.max(verticalVelocity(), 0);
+        return (float) (launchHeight() + velocity * velocity / (2 * GRAVITY));
+    }
+
+    /**
+     * @return the highest point of the ball in meters since the kick, fitted or observed
+     */
+    public float getMaxHeight() {
+        return isFitted() ? Math.max(maxHeight, getApexHeight()) : maxHeight;
+    }
+
+    /**
+     * @return the time at which the fitted flight reaches the ground
+     */
+    public double getLandingTime() {
+        double velocity = verticalVelocity();
+        double height = Math.max(launchHeight(), 0);
+        return origin + (velocity + Math.sqrt(velocity * velocity + 2 * GRAVITY * height)) / GRAVITY;
+    }
+
+    /**
+     * @return the point at which the fitted flight reaches the ground, or null if the flight is not fitted
+     */
+    public Vector2 getLandingPoint() {
+        if (landed) {
+            return new Vector2((float) landingX, (float) landingY);
+        }
+        if (!isFitted()) {
+            return null;
+        }
+
+        double t = getLandingTime() - origin;
+        return new Vector2((float) fitX(t), (float) fitY(t));
+    }
+
+    /**
+     * @return true if the ball landed after the kick
+     */
+    public boolean hasLanded() {
+        return landed;
+    }
+}
@@ -1,5 +1,6 @@
 package nl.roboteamtwente.autoref.model;
 
+import nl.roboteamtwente.autoref.parameters.RuleParameters;
 import org.robocup.ssl.proto.SslGcRefereeMessage;
 
 import java.util.ArrayList;
@@ -61,6 +62,21 @@ public class Game {
     private GameState state;
     private double time;
 
+    /**
+     * The states the game passed through since the previous frame, when several commands arrived in between.
+     * Neither the state of the previous frame nor the current state are included.
+     */
+    private final List<GameState> passedStates;
+
+    /**
+     * The lines the ball crossed since the previous frame, in order of time.
+     */
+    private final List<LineCrossing> lineCrossings;
+    private final List<RobotContact> robotContacts;
+
+    private BallTrajectory ballTrajectory;
+    private LineCrossing exitForecast;
+
     private Game previous;
 
     private Vector2 kickPoint;
@@ -72,6 +88,11 @@ public class Game {
 
     private boolean forceStarted;
 
+    /**
+     * The rule parameters that apply during this frame.
+     */
+    private RuleParameters parameters;
+
     public Game() {
         this.robots = new ArrayList<>();
         this.ball = new Ball();
@@ -88,8 +109,13 @@ public class Game {
         this.previous = this;
 
         this.touches = new ArrayList<>();
+        this.passedStates = new ArrayList<>();
+        this.lineCrossings = new ArrayList<>();
+        this.robotContacts = new ArrayList<>();
 
         this.forceStarted = false;
+
+        this.parameters = RuleParameters.DEFAULT;
     }
 
     /**
@@ -202,6 +228,49 @@ public class Game {
         this.state = state;
     }
 
+    /**
+     * @return the states the game passed through since the previous frame, in order
+     */
+    public List<GameState> getPassedStates() {
+        return passedStates;
+    }
+
+    /**
+     * @return the lines the ball crossed since the previous frame, in order of time
+     */
+    public List<LineCrossing> getLineCrossings() {
+        return lineCrossings;
+    }
+
+    /**
+     * @return the robots in contact with each other, and the contacts that ended since the previous frame
+     */
+    public List<RobotContact> getRobotContacts() {
+        return robotContacts;
+    }
+
+    /**
+     * @return the fitted flight of the ball since the last touch, as of the latest frame
+     */
+    public BallTrajectory getBallTrajectory() {
+        return ballTrajectory;
+    }
+
+    public void setBallTrajectory(BallTrajectory ballTrajectory) {
+        this.ballTrajectory = ballTrajectory;
+    }
+
+    /**
+     * @return the predicted point and time the ball will leave the field, or null if it is predicted to stay in
+     */
+    public LineCrossing getExitForecast() {
+        return exitForecast;
+    }
+
+    public void setExitForecast(LineCrossing exitForecast) {
+        this.exitForecast = exitForecast;
+    }
+
     public void setPrevious(Game previous) {
         this.previous = previous;
     }
@@ -276,4 +345,15 @@ public class Game {
         return this.kickPoint;
     }
 
+    /**
+     * @return the snapshot of the rule parameters used in this frame.
+     */
+    public RuleParameters getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(RuleParameters parameters) {
+        this.parameters = parameters;
+    }
+
 }
@@ -0,0 +1,140 @@
+package nl.roboteamtwente.autoref.model;
+
+/**
+ * Estimates the speed of the ball right after a kick, by fitting a straight line through the first observations
+ * after the touch ended. The velocity of a single frame is noisy, especially in the frames right after the
+ * contact, a fit over a few frames is not.
+ * <p>
+ * Once the ball leaves the ground, the height is corrected for gravity and fitted as well, so the launch speed of a
+ * chip is estimated too. A rolling ball is fitted in the plane only, as the correction would give it a vertical
+ * speed it does not have. The observations are kept in preallocated arrays, so adding one does not allocate.
+ */
+public class KickSpeedEstimator {
+    /**
+     * The number of observations after the kick that are fitted.
+     */
+    public static final int OBSERVATIONS = 6;
+
+    /**
+     * The expected noise of a ball observation in meters.
+     */
+    private static final double NOISE = 0.01;
+
+    /**
+     * The height in meters above which the ball is in the air, a few times the noise.
+     */
+    private static final double GROUND_HEIGHT = 0.05;
+
+    private final double[] times = new double[OBSERVATIONS];
+    private final double[][] positions = new double[3][OBSERVATIONS];
+    private int count;
+    private double origin;
+    private boolean airborne;
+
+    private float speed;
+    private float confidence;
+
+    /**
+     * Start estimating the speed of a new kick.
+     *
+     * @param time the time the touch ended
+     */
+    public void reset(double time) {
+        origin = time;
+        count = 0;
+        airborne = false;
+        speed = 0;
+        confidence = 0;
+    }
+
+    /**
+     * Add an observation of the ball, observations after the first few are ignored.
+     *
+     * @param time     the time of the observation
+     * @param position the position of the ball
+     */
+    public void add(double time, Vector3 position) {
+        if (count == OBSERVATIONS) {
+            return;
+        }
+
+        double t = time - origin;
+        times[count] = t;
+        positions[0][count] = position.getX();
+        positions[1][count] = position.getY();
+        positions[2][count] = position.getZ() + BallTrajectory.GRAVITY / 2 * t * t;
+        airborne |= position.getZ() > GROUND_HEIGHT;
+        count++;
+
+        if (count >= 2) {
+            fit();
+        }
+    }
+
+    private void fit() {
+        double meanTime = 0;
+        for (int i = 0; i < count; i++) {
+            meanTime += times[i];
+        }
+        meanTime /= count;
+
+        double stt = 0;
+        for (int i = 0; i < count; i++) {
+            stt += (times[i] - meanTime) * (times[i] - meanTime);
+        }
+        if (stt < 1e-12) {
+            return;
+        }
+
+        double speedSquared = 0;
+        double squaredError = 0;
+        int dimensions = airborne ? 3 : 2;
+        for (int d = 0; d < dimensions; d++) {
+            double[] values = positions[d];
+            double mean = 0;
+            for (int i = 0; i < count; i++) {
+                mean += values[i];
+            }
+            mean /= count;
+
+            double stv = 0;
+            for (int i = 0; i < count; i++) {
+                stv += (times[i] - meanTime) * (values[i] - mean);
+            }
+            double velocity = stv / stt;
+            speedSquared += velocity * velocity;
+
+            for (int i = 0; i < count; i++) {
+                double error = values[i] - mean - velocity * (times[i] - meanTime);
+                squaredError += error * error;
+            }
+        }
+
+        //a line through two points always fits, so the error is only known with more observations
+        double residual = count > 2 ? Math.sqrt(squaredError / (count - 2)) : NOISE;
+        speed = (float) Math.sqrt(speedSquared);
+        confidence = (float) ((count - 1.0) / (OBSERVATIONS - 1) * NOISE * NOISE / (NOISE * NOISE + residual * residual));
+    }
+
+    /**
+     * @return whether all observations have been added, the estimate does not change anymore
+     */
+    public boolean isComplete() {
+        return count == OBSERVATIONS;
+    }
+
+    /**
+     * @return the estimated speed of the ball in m/s after the kick, or 0 if there are not enough observations
+     */
+    public float getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return the confidence in the estimated speed between 0 and 1, which grows with the number of observations
+     * and shrinks when they do not lie on a line
+     */
+    public float getConfidence() {
+        return confidence;
+    }
+}
@@ -0,0 +1,48 @@
+package nl.roboteamtwente.autoref.model;
+
+/**
+ * The ball crossing a line of the field between the previous frame and the current one.
+ *
+ * @param line     the line that was crossed
+ * @param location the point where the ball crossed the line
+ * @param time     the time at which the ball crossed the line, assuming it moved in a straight line
+ * @param leaving  true if the ball crossed the line towards the outside of the field
+ */
+public record LineCrossing(Line line, Vector2 location, double time, boolean leaving) {
+    public enum Line {
+        TOP_TOUCH_LINE,
+        BOTTOM_TOUCH_LINE,
+        LEFT_GOAL_LINE,
+        RIGHT_GOAL_LINE,
+        /**
+         * The part of the left goal line between the goal posts.
+         */
+        LEFT_GOAL,
+        /**
+         * The part of the right goal line between the goal posts.
+         */
+        RIGHT_GOAL,
+        /**
+         * The field lines moved out by the boundary crossing margin.
+         */
+        BOUNDARY;
+
+        /**
+         * @return the side of the goal line or goal, or null for other lines
+         */
+        public Side getSide() {
+            return switch (this) {
+                case LEFT_GOAL_LINE, LEFT_GOAL -> Side.LEFT;
+                case RIGHT_GOAL_LINE, RIGHT_GOAL -> Side.RIGHT;
+                default -> null;
+            };
+        }
+
+        /**
+         * @return true for the part of a goal line between the goal posts
+         */
+        public boolean isGoal() {
+            return this == LEFT_GOAL || this == RIGHT_GOAL;
+        }
+    }
+}
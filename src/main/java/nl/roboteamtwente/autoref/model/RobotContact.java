@@ -0,0 +1,141 @@
+package nl.roboteamtwente.autoref.model;
+
+/**
+ * Two robots that are in contact, from the frame they touched until the frame they separated.
+ * The velocities at impact are those of the frame before the contact, before the robots slowed each other down.
+ */
+public class RobotContact {
+    private final RobotIdentifier first;
+    private final RobotIdentifier second;
+    private final double startTime;
+    private final Vector2 location;
+    private final float impactDistance;
+    private final Vector2 firstImpactVelocity;
+    private final Vector2 secondImpactVelocity;
+    private final float impactSpeed;
+
+    private double lastTime;
+    private float separation;
+    private float minSeparation;
+    private Double endTime;
+    private boolean judged;
+
+    public RobotContact(RobotIdentifier first, RobotIdentifier second, double startTime, Vector2 location, float impactDistance,
+                        Vector2 firstImpactVelocity, Vector2 secondImpactVelocity, float impactSpeed, float separation) {
+        this.first = first;
+        this.second = second;
+        this.startTime = startTime;
+        this.location = location;
+        this.impactDistance = impactDistance;
+        this.firstImpactVelocity = firstImpactVelocity;
+        this.secondImpactVelocity = secondImpactVelocity;
+        this.impactSpeed = impactSpeed;
+        this.lastTime = startTime;
+        this.separation = separation;
+        this.minSeparation = separation;
+        this.endTime = null;
+    }
+
+    /**
+     * @param time       the time of the frame
+     * @param separation the distance in meters between the hulls of the robots
+     */
+    public void update(double time, float separation) {
+        this.lastTime = time;
+        this.separation = separation;
+        this.minSeparation = Math.min(minSeparation, separation);
+    }
+
+    public RobotIdentifier getFirst() {
+        return first;
+    }
+
+    public RobotIdentifier getSecond() {
+        return second;
+    }
+
+    /**
+     * @param robot one of the robots
+     * @return true if the robot is in this contact
+     */
+    public boolean involves(RobotIdentifier robot) {
+        return first.equals(robot) || second.equals(robot);
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return the point halfway between the robots at impact
+     */
+    public Vector2 getLocation() {
+        return location;
+    }
+
+    /**
+     * @return the distance in meters between the centers of the robots at impact
+     */
+    public float getImpactDistance() {
+        return impactDistance;
+    }
+
+    public Vector2 getFirstImpactVelocity() {
+        return firstImpactVelocity;
+    }
+
+    public Vector2 getSecondImpactVelocity() {
+        return secondImpactVelocity;
+    }
+
+    /**
+     * @return the speed in m/s at which the robots closed in on each other at impact
+     */
+    public float getImpactSpeed() {
+        return impactSpeed;
+    }
+
+    /**
+     * @return the distance in meters between the hulls of the robots in the latest frame of the contact
+     */
+    public float getSeparation() {
+        return separation;
+    }
+
+    /**
+     * @return the smallest distance in meters between the hulls of the robots during the contact
+     */
+    public float getMinSeparation() {
+        return minSeparation;
+    }
+
+    /**
+     * @return how long the robots have been in contact in seconds
+     */
+    public double getDuration() {
+        return lastTime - startTime;
+    }
+
+    public boolean isFinished() {
+        return endTime != null;
+    }
+
+    public void setEndTime(Double endTime) {
+        this.endTime = endTime;
+    }
+
+    public Double getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return whether a validator has judged this contact already
+     */
+    public boolean isJudged() {
+        return judged;
+    }
+
+    public void setJudged(boolean judged) {
+        this.judged = judged;
+    }
+}
@@ -12,6 +12,15 @@ public class Touch {
     private float averageNumberOfRobotsCloseBy;
     private int nOfDataPoints;
     private RobotIdentifier by;
+    private boolean chip;
+    private float maxBallHeight;
+    private Vector2 landingPoint;
+    private float kickSpeed;
+    private float kickSpeedConfidence;
+    private boolean kickSpeedFinal;
+    private Vector2 lastLocation;
+    private float maxDisplacement;
+    private float pathLength;
 
     public Touch(int id, Vector3 startLocation, double startTime,
                  Vector3 startVelocity, int numberOfRobotsCloseBy, RobotIdentifier by) {
@@ -26,6 +35,9 @@ public class Touch {
         this.averageNumberOfRobotsCloseBy = numberOfRobotsCloseBy;
         this.nOfDataPoints = 1;
         this.by = by;
+        this.lastLocation = startLocation.xy();
+        this.maxDisplacement = 0.0f;
+        this.pathLength = 0.0f;
     }
 
     public boolean isFinished() {
@@ -40,6 +52,39 @@ public class Touch {
         this.nOfDataPoints++;
     }
 
+    /**
+     * Follow the ball while the robot has it, to keep the statistics of its path up to date.
+     *
+     * @param location the location of the ball
+     */
+    public void updatePath(Vector3 location) {
+        Vector2 xy = location.xy();
+        this.pathLength += lastLocation.distance(xy);
+        this.maxDisplacement = Math.max(maxDisplacement, startLocation.xy().distance(xy));
+        this.lastLocation = xy;
+    }
+
+    /**
+     * @return the latest location of the ball during this touch
+     */
+    public Vector2 getLastLocation() {
+        return lastLocation;
+    }
+
+    /**
+     * @return the largest distance in meters of the ball from the start location during this touch
+     */
+    public float getMaxDisplacement() {
+        return maxDisplacement;
+    }
+
+    /**
+     * @return the distance in meters the ball travelled during this touch
+     */
+    public float getPathLength() {
+        return pathLength;
+    }
+
     public float deflectionAngle() {
         float angle = startVelocity.xy().angle(endVelocity.xy());
         return Math.min(angle, 360 - angle);
@@ -89,4 +134,64 @@ public class Touch {
     public double getStartTime() {
         return this.startTime;
     }
+
+    /**
+     * @return true if the ball was chipped at the end of this touch
+     */
+    public boolean isChip() {
+        return chip;
+    }
+
+    public void setChip(boolean chip) {
+        this.chip = chip;
+    }
+
+    /**
+     * @return the highest point of the ball in meters after this touch
+     */
+    public float getMaxBallHeight() {
+        return maxBallHeight;
+    }
+
+    public void setMaxBallHeight(float maxBallHeight) {
+        this.maxBallHeight = maxBallHeight;
+    }
+
+    /**
+     * @return the point where the chipped ball lands (or landed), or null if the ball was not chipped
+     */
+    public Vector2 getLandingPoint() {
+        return landingPoint;
+    }
+
+    public void setLandingPoint(Vector2 landingPoint) {
+        this.landingPoint = landingPoint;
+    }
+
+    /**
+     * @return the estimated speed of the ball in m/s right after this touch
+     */
+    public float getKickSpeed() {
+        return kickSpeed;
+    }
+
+    /**
+     * @return the confidence in the kick speed between 0 and 1
+     */
+    public float getKickSpeedConfidence() {
+        return kickSpeedConfidence;
+    }
+
+    /**
+     * @return whether the kick speed is estimated from every observation it will get, so it does not change anymore
+     */
+    public boolean isKickSpeedFinal() {
+        return kickSpeedFinal;
+    }
+
+    public void setKickSpeed(float kickSpeed, float confidence, boolean complete) {
+        this.kickSpeed = kickSpeed;
+        this.kickSpeedConfidence = confidence;
+        this.kickSpeedFinal = complete;
+    }
 }
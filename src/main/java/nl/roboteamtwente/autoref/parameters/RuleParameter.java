@@ -0,0 +1,155 @@
+package nl.roboteamtwente.autoref.parameters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A typed key of a tunable threshold used by the validators. All parameters are declared in this class,
+ * so this class doubles as the registry of every parameter that can be set in a rule parameter file.
+ *
+ * @param <T> the type of the value of the parameter.
+ */
+public final class RuleParameter<T> {
+    private static final List<RuleParameter<?>> PARAMETERS = new ArrayList<>();
+
+    /**
+     * Maximum distance in meters between the robot hull and the ball to count as a touch.
+     */
+    public static final RuleParameter<Float> BALL_TOUCHING_DISTANCE = ofFloat("ball_touching_distance", 0.025f);
+
+    /**
+     * Change of direction of the ball in degrees that is still considered to be noise.
+     */
+    public static final RuleParameter<Float> BALL_ANGLE_NOISE_RANGE = ofFloat("ball_angle_noise_range", 5.0f);
+
+    /**
+     * Time in seconds before the same violation can be raised again.
+     */
+    public static final RuleParameter<Double> GRACE_PERIOD = ofDouble("grace_period", 2.0);
+
+    /**
+     * Maximum distance in meters between two robot hulls to count as a crash.
+     */
+    public static final RuleParameter<Float> BOT_CRASH_DISTANCE = ofFloat("bot_crash_distance", 0.005f);
+
+    /**
+     * Minimum projected velocity difference in m/s of two robots to count as a crash.
+     */
+    public static final RuleParameter<Float> SPEED_VECTOR_THRESHOLD = ofFloat("speed_vector_threshold", 1.5f);
+
+    /**
+     * Speed difference in m/s under which a crash is considered drawn.
+     */
+    public static final RuleParameter<Float> MIN_SPEED_DIFFERENCE = ofFloat("min_speed_difference", 0.3f);
+
+    /**
+     * Maximum speed in m/s of a robot during stop.
+     */
+    public static final RuleParameter<Float> MAX_SPEED_ALLOWED = ofFloat("max_speed_allowed", 1.5f);
+
+    /**
+     * Time in seconds after a stop during which robots may slow down.
+     */
+    public static final RuleParameter<Double> STOP_GRACE_PERIOD = ofDouble("stop_grace_period", 2.0);
+
+    /**
+     * Maximum speed in m/s of the ball after a kick.
+     */
+    public static final RuleParameter<Float> MAX_BALL_SPEED = ofFloat("max_ball_speed", 6.5f);
+
+    /**
+     * Maximum distance in meters a robot may dribble the ball.
+     */
+    public static final RuleParameter<Float> MAX_DRIBBLE_DISTANCE = ofFloat("max_dribble_distance", 1.0f);
+
+    /**
+     * Distance in meters outside the field lines after which the ball crossed the boundary.
+     */
+    public static final RuleParameter<Float> BOUNDARY_CROSSING_MARGIN = ofFloat("boundary_crossing_margin", 0.7f + 0.05f);
+
+    /**
+     * Distance in meters from the defense area an attacker has to keep during stop and free kicks.
+     */
+    public static final RuleParameter<Double> DEFENSE_AREA_DISTANCE = ofDouble("defense_area_distance", 0.2);
+
+    /**
+     * Height in meters the fitted flight of the ball has to reach for a kick to be a chip.
+     */
+    public static final RuleParameter<Float> CHIP_HEIGHT = ofFloat("chip_height", 0.1f);
+
+    /**
+     * Confidence between 0 and 1 the estimated kick speed needs before a kick can be judged too fast.
+     */
+    public static final RuleParameter<Float> KICK_SPEED_CONFIDENCE = ofFloat("kick_speed_confidence", 0.7f);
+
+    private final int index;
+    private final String name;
+    private final T defaultValue;
+    private final Function<String, T> parser;
+
+    private RuleParameter(String name, T defaultValue, Function<String, T> parser) {
+        this.index = PARAMETERS.size();
+        this.name = name;
+        this.defaultValue = defaultValue;
+        this.parser = parser;
+
+        PARAMETERS.add(this);
+    }
+
+    private static RuleParameter<Float> ofFloat(String name, float defaultValue) {
+        return new RuleParameter<>(name, defaultValue, Float::parseFloat);
+    }
+
+    private static RuleParameter<Double> ofDouble(String name, double defaultValue) {
+        return new RuleParameter<>(name, defaultValue, Double::parseDouble);
+    }
+
+    /**
+     * @return all parameters in the registry.
+     */
+    public static List<RuleParameter<?>> values() {
+        return Collections.unmodifiableList(PARAMETERS);
+    }
+
+    /**
+     * @param name the name of the parameter, as used in a parameter file.
+     * @return the parameter or null if there is no parameter with this name.
+     */
+    public static RuleParameter<?> byName(String name) {
+        for (RuleParameter<?> parameter : PARAMETERS) {
+            if (parameter.name.equals(name)) {
+                return parameter;
+            }
+        }
+
+        return null;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public T getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @param value the textual value.
+     * @return the parsed value.
+     * @throws NumberFormatException if the value is not valid for this parameter.
+     */
+    T parse(String value) {
+        return parser.apply(value.trim());
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
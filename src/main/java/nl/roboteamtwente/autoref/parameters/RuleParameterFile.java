@@ -0,0 +1,84 @@
+package nl.roboteamtwente.autoref.parameters;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * Keeps the rule parameters in sync with a local parameter file. Whenever the file changes, it is parsed
+ * into a new snapshot which replaces the current one in a single volatile write. If the file cannot be
+ * parsed, the previous snapshot stays in use.
+ */
+public class RuleParameterFile implements Runnable {
+    private final Path file;
+    private volatile RuleParameters parameters = RuleParameters.DEFAULT;
+
+    /**
+     * @param file the parameter file, it is loaded immediately when it exists.
+     */
+    public RuleParameterFile(Path file) {
+        this.file = file.toAbsolutePath();
+
+        if (Files.exists(this.file)) {
+            reload();
+        } else {
+            System.err.println("Rule parameter file " + this.file + " does not exist, using default values.");
+        }
+    }
+
+    /**
+     * Load the parameter file and publish the result if it is valid.
+     */
+    public void reload() {
+        try {
+            //editors truncate the file before writing it, wait for the write that follows
+            if (Files.size(file) == 0) {
+                return;
+            }
+
+            parameters = RuleParameters.load(file);
+            System.out.println("Loaded rule parameters from " + file + ": " + parameters);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Failed to load rule parameters from " + file + ", keeping the previous values: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the latest valid snapshot of the parameters.
+     */
+    public RuleParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Watch the parameter file and reload it whenever it is created or modified.
+     */
+    @Override
+    public void run() {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path path && file.getFileName().equals(path)) {
+                        changed = true;
+                    }
+                }
+
+                if (changed) {
+                    reload();
+                }
+
+                if (!key.reset()) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //empty
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package nl.roboteamtwente.autoref.parameters;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * An immutable snapshot of the values of all rule parameters. A new snapshot is created for every change,
+ * so a snapshot can be read from any thread without locking.
+ */
+public final class RuleParameters {
+    /**
+     * The snapshot with the default value of every parameter.
+     */
+    public static final RuleParameters DEFAULT = new RuleParameters(defaultValues());
+
+    private final Object[] values;
+
+    private RuleParameters(Object[] values) {
+        this.values = values;
+    }
+
+    private static Object[] defaultValues() {
+        Object[] values = new Object[RuleParameter.values().size()];
+        for (RuleParameter<?> parameter : RuleParameter.values()) {
+            values[parameter.getIndex()] = parameter.getDefaultValue();
+        }
+        return values;
+    }
+
+    /**
+     * @param parameter the parameter.
+     * @return the value of the parameter in this snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(RuleParameter<T> parameter) {
+        return (T) values[parameter.getIndex()];
+    }
+
+    /**
+     * Create a snapshot from a set of properties, parameters not present in the properties keep
+     * their default value.
+     *
+     * @param properties the properties mapping parameter names to values.
+     * @return the new snapshot.
+     * @throws IllegalArgumentException if a parameter is unknown or has an invalid value.
+     */
+    public static RuleParameters fromProperties(Properties properties) {
+        Object[] values = defaultValues();
+        for (String name : properties.stringPropertyNames()) {
+            RuleParameter<?> parameter = RuleParameter.byName(name);
+            if (parameter == null) {
+                throw new IllegalArgumentException("Unknown rule parameter '" + name + "'");
+            }
+
+            try {
+                values[parameter.getIndex()] = parameter.parse(properties.getProperty(name));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for rule parameter '" + name + "': " + properties.getProperty(name));
+            }
+        }
+
+        return new RuleParameters(values);
+    }
+
+    /**
+     * Load a snapshot from a properties file.
+     *
+     * @param file the file to load.
+     * @return the new snapshot.
+     * @throws IOException              if the file could not be read.
+     * @throws IllegalArgumentException if the file contains an unknown parameter or an invalid value.
+     */
+    public static RuleParameters load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+
+        return fromProperties(properties);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("RuleParameters{");
+        for (RuleParameter<?> parameter : RuleParameter.values()) {
+            if (parameter.getIndex() > 0) {
+                builder.append(", ");
+            }
+            builder.append(parameter.getName()).append('=').append(values[parameter.getIndex()]);
+        }
+        return builder.append('}').toString();
+    }
+}
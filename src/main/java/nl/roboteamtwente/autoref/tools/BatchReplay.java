@@ -0,0 +1,209 @@
+package nl.roboteamtwente.autoref.tools;
+
+import nl.roboteamtwente.autoref.FrameRecorder;
+import nl.roboteamtwente.autoref.FrameRecording;
+import nl.roboteamtwente.autoref.SSLAutoRef;
+import nl.roboteamtwente.autoref.SslLogReader;
+import nl.roboteamtwente.proto.StateOuterClass;
+import org.apache.commons.cli.*;
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Replays every match in a directory through the AutoRef, to analyze the matches of a whole tournament at once. A
+ * match is a recording of a {@link FrameRecorder} or an official SSL log file. Every match gets its own AutoRef, and
+ * the matches are replayed at the same time, one per core, since nothing is shared between AutoRefs.
+ * <p>
+ * The violations of all matches are merged into one report, and the time every match took is listed.
+ * <p>
+ * Run with {@code ./gradlew batchReplay --args="-i logs -o report.txt"}.
+ */
+public class BatchReplay {
+    /**
+     * A match to replay.
+     *
+     * @param name the name of the file or directory of the match
+     * @param path the file or directory of the match
+     * @param log  whether the match is an SSL log file instead of a recording
+     */
+    private record Match(String name, Path path, boolean log) {
+    }
+
+    /**
+     * The violations and game events of a match, and how long it took.
+     *
+     * @param duration the World time between the first and last frame, in seconds
+     * @param error    why the match could not be replayed, or null
+     */
+    private record MatchResult(Match match, List<String> violations, Map<SslGcGameEvent.GameEvent.Type, Integer> gameEvents,
+                               long frames, double duration, long nanos, String error) {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options = new Options();
+        Option input = new Option("i", "input", true, "directory with recordings and SSL log files");
+        input.setRequired(true);
+        options.addOption(input);
+        options.addOption(new Option("rp", "rule-parameters", true, "rule parameter file to replay with"));
+        options.addOption(new Option("o", "output", true, "write the merged violations of all matches to this file"));
+        options.addOption(new Option("t", "threads", true, "number of matches to replay at the same time [default = number of cores]"));
+
+        CommandLine cmd;
+        try {
+            cmd = new DefaultParser().parse(options, args);
+        } catch (ParseException e) {
+            new HelpFormatter().printHelp("BatchReplay", options);
+            System.exit(1);
+            return;
+        }
+
+        List<Match> matches = findMatches(Path.of(cmd.getOptionValue("i")));
+        if (matches.isEmpty()) {
+            System.err.println("No recordings or SSL log files in " + cmd.getOptionValue("i"));
+            System.exit(1);
+        }
+        Path rules = cmd.hasOption("rp") ? Path.of(cmd.getOptionValue("rp")) : null;
+        if (rules != null && !Files.isRegularFile(rules)) {
+            System.err.println("Rule parameter file " + rules + " does not exist");
+            System.exit(1);
+        }
+        int threads = Integer.parseInt(cmd.getOptionValue("t", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        threads = Math.max(1, Math.min(threads, matches.size()));
+
+        System.out.println("Replaying " + matches.size() + " matches on " + threads + " threads");
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<MatchResult> completion = new ExecutorCompletionService<>(executor);
+        for (Match match : matches) {
+            completion.submit(() -> replay(match, rules));
+        }
+
+        List<MatchResult> results = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            try {
+                MatchResult result = completion.take().get();
+                results.add(result);
+                printResult(result);
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+            }
+        }
+        executor.shutdown();
+        long nanos = System.nanoTime() - start;
+
+        results.sort(Comparator.comparing((result) -> result.match().name()));
+        long frames = 0;
+        long matchNanos = 0;
+        double duration = 0;
+        int violations = 0;
+        Map<SslGcGameEvent.GameEvent.Type, Integer> gameEvents = new TreeMap<>();
+        for (MatchResult result : results) {
+            frames += result.frames();
+            matchNanos += result.nanos();
+            duration += result.duration();
+            violations += result.violations().size();
+            result.gameEvents().forEach((type, count) -> gameEvents.merge(type, count, Integer::sum));
+        }
+
+        System.out.printf(Locale.ROOT, "%d frames of %.0f s of play in %.2f s, %.0f frames/s, %.0fx real time, %.1f matches at a time%n",
+                frames, duration, nanos / 1e9, frames / (nanos / 1e9), duration / (nanos / 1e9), (double) matchNanos / nanos);
+        System.out.println("violations: " + violations);
+        System.out.println("game events: " + gameEvents);
+        boolean complete = results.size() == matches.size() && results.stream().allMatch((result) -> result.error() == null);
+        if (!complete) {
+            System.out.println("Not every match could be replayed");
+        }
+
+        if (cmd.hasOption("o")) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(Path.of(cmd.getOptionValue("o"))))) {
+                for (MatchResult result : results) {
+                    for (String violation : result.violations()) {
+                        out.println(result.match().name() + " " + violation);
+                    }
+                }
+            }
+        }
+        System.exit(complete ? 0 : 2);
+    }
+
+    /**
+     * @return the recordings and SSL log files in the directory, by name
+     */
+    private static List<Match> findMatches(Path directory) throws IOException {
+        List<Match> matches = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            for (Path path : list.sorted().toList()) {
+                String name = path.getFileName().toString();
+                if (Files.isDirectory(path) && FrameRecording.isRecording(path)) {
+                    matches.add(new Match(name, path, false));
+                } else if (Files.isRegularFile(path) && (name.endsWith(".log") || name.endsWith(".log.gz"))) {
+                    matches.add(new Match(name, path, true));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Replay a match through a new AutoRef. The frames are read while replaying, so a match does not have to fit in
+     * memory, and reading them is part of the time of the match.
+     */
+    private static MatchResult replay(Match match, Path rules) {
+        List<String> violations = new ArrayList<>();
+        Map<SslGcGameEvent.GameEvent.Type, Integer> gameEvents = new TreeMap<>();
+        SSLAutoRef ref = Replay.createAutoRef(rules, violations, gameEvents);
+
+        long[] frames = new long[1];
+        double[] times = {Double.NaN, Double.NaN};
+        long start = System.nanoTime();
+        try {
+            if (match.log()) {
+                new SslLogReader(match.path()).forEachFrame((frame) -> check(ref, frame, frames, times));
+            } else {
+                new FrameRecording(match.path()).forEach((entry) -> {
+                    if (entry.kind() == FrameRecorder.Kind.FRAME) {
+                        check(ref, entry.frame(), frames, times);
+                    }
+                });
+            }
+            ref.flushFrames();
+        } catch (IOException | RuntimeException e) {
+            //one broken match should not stop the others
+            return new MatchResult(match, violations, gameEvents, frames[0], 0, System.nanoTime() - start,
+                    "failed after " + frames[0] + " frames, " + e.getMessage());
+        }
+
+        double duration = frames[0] > 0 ? times[1] - times[0] : 0;
+        return new MatchResult(match, violations, gameEvents, frames[0], duration, System.nanoTime() - start,
+                frames[0] == 0 ? "no frames" : null);
+    }
+
+    private static void check(SSLAutoRef ref, StateOuterClass.State frame, long[] frames, double[] times) {
+        double time = frame.getCommandExtrapolatedWorld().getTime() / 1_000_000_000.0;
+        if (Double.isNaN(times[0])) {
+            times[0] = time;
+        }
+        times[1] = time;
+        frames[0]++;
+        ref.checkViolations(frame);
+    }
+
+    private static void printResult(MatchResult result) {
+        if (result.error() != null) {
+            System.out.println(result.match().name() + ": " + result.error());
+            return;
+        }
+
+        double seconds = result.nanos() / 1e9;
+        System.out.printf(Locale.ROOT, "%s: %d frames in %.2f s, %.0f frames/s, %.0fx real time, %d violations%n",
+                result.match().name(), result.frames(), seconds, result.frames() / seconds, result.duration() / seconds,
+                result.violations().size());
+    }
+}
@@ -0,0 +1,142 @@
+package nl.roboteamtwente.autoref.tools;
+
+import nl.roboteamtwente.autoref.GameControllerConnection;
+import nl.roboteamtwente.autoref.LatencyHistogram;
+import org.apache.commons.cli.*;
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.io.IOException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pushes game events through a {@link GameControllerConnection} into a local {@link GameControllerStandIn}
+ * at a fixed rate, and reports the sustained throughput and the latency from queueing an event until the
+ * stand-in receives it. Everything runs in this process, so no network or GameController is needed.
+ * <p>
+ * Run with {@code ./gradlew gcLoadTest --args="-r 5000 -d 10"}.
+ */
+public class GameControllerLoadTest {
+    private static final String ORIGIN_PREFIX = "load-test:";
+
+    private static final SslGcGameEvent.GameEvent.Type[] TYPES = {
+            SslGcGameEvent.GameEvent.Type.BOT_TOO_FAST_IN_STOP,
+            SslGcGameEvent.GameEvent.Type.ATTACKER_TOO_CLOSE_TO_DEFENSE_AREA,
+            SslGcGameEvent.GameEvent.Type.BOT_CRASH_UNIQUE,
+            SslGcGameEvent.GameEvent.Type.POSSIBLE_GOAL
+    };
+
+    public static void main(String[] args) throws IOException, InterruptedException, NoSuchAlgorithmException {
+        Options options = new Options();
+        options.addOption(new Option("r", "rate", true, "game events per second [default = 5000]"));
+        options.addOption(new Option("d", "duration", true, "duration in seconds [default = 10]"));
+        options.addOption(new Option("delay", true, "reply delay of the stand-in in ms [default = 0]"));
+        options.addOption(new Option("jitter", true, "maximum reply jitter of the stand-in in ms [default = 0]"));
+        options.addOption(new Option("reject", true, "probability that the stand-in rejects an event [default = 0]"));
+        options.addOption(new Option("disconnect", true, "drop the connection after this many events, 0 to never drop it [default = 0]"));
+        options.addOption(new Option("verify", "sign events and let the stand-in verify them, this allows only one event in flight"));
+
+        CommandLine cmd;
+        try {
+            cmd = new DefaultParser().parse(options, args);
+        } catch (ParseException e) {
+            new HelpFormatter().printHelp("GameControllerLoadTest", options);
+            System.exit(1);
+            return;
+        }
+
+        int rate = Integer.parseInt(cmd.getOptionValue("r", "5000"));
+        double duration = Double.parseDouble(cmd.getOptionValue("d", "10"));
+
+        GameControllerStandIn standIn = new GameControllerStandIn(0);
+        standIn.setReplyDelay(Long.parseLong(cmd.getOptionValue("delay", "0")), Long.parseLong(cmd.getOptionValue("jitter", "0")));
+        standIn.setRejectProbability(Double.parseDouble(cmd.getOptionValue("reject", "0")));
+        standIn.setDisconnectAfter(Integer.parseInt(cmd.getOptionValue("disconnect", "0")));
+
+        GameControllerConnection connection = new GameControllerConnection();
+        connection.setIp("127.0.0.1");
+        connection.setPort(standIn.getPort());
+        connection.setAutoConnect(true);
+        //no event should be discarded for its age, the backlog is part of what is measured
+        connection.setMaxEventAge(Long.MAX_VALUE / 2);
+        if (cmd.hasOption("verify")) {
+            KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+            keyGen.initialize(512, new SecureRandom());
+            KeyPair keyPair = keyGen.generateKeyPair();
+            connection.setPrivateKey(keyPair.getPrivate());
+            standIn.setPublicKey(keyPair.getPublic());
+        }
+
+        LatencyHistogram endToEnd = new LatencyHistogram();
+        long[] lastReceived = new long[1];
+        standIn.setOnGameEvent((gameEvent) -> {
+            long now = System.nanoTime();
+            for (String origin : gameEvent.getOriginList()) {
+                if (origin.startsWith(ORIGIN_PREFIX)) {
+                    endToEnd.record(now - Long.parseLong(origin.substring(ORIGIN_PREFIX.length())));
+                }
+            }
+            lastReceived[0] = now;
+        });
+
+        Thread standInThread = new Thread(standIn, "gc-stand-in");
+        standInThread.setDaemon(true);
+        standInThread.start();
+        Thread connectionThread = new Thread(connection, "gc-connection");
+        connectionThread.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!connection.isConnected()) {
+            if (System.nanoTime() > deadline) {
+                System.err.println("Could not connect to the stand-in");
+                System.exit(1);
+            }
+            Thread.sleep(1);
+        }
+
+        //queue the events at a fixed rate
+        long total = (long) (rate * duration);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long due = start + i * interval;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            connection.addToQueue(SslGcGameEvent.GameEvent.newBuilder()
+                    .setType(TYPES[(int) (i % TYPES.length)])
+                    .addOrigin(ORIGIN_PREFIX + System.nanoTime())
+                    .build());
+        }
+        long queued = System.nanoTime();
+
+        //wait for the backlog to drain
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (standIn.getAccepted() + standIn.getRejected() < total && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        connection.setAutoConnect(false);
+        connection.disconnect();
+        connectionThread.interrupt();
+        connectionThread.join();
+        standIn.close();
+
+        double elapsed = (Math.max(lastReceived[0], queued) - start) / 1e9;
+        long received = standIn.getAccepted() + standIn.getRejected();
+        System.out.printf("queued %d events at %d/s in %.2f s%n", total, rate, (queued - start) / 1e9);
+        System.out.printf("received %d events (%d accepted, %d rejected, %d missing) in %.2f s: %.0f events/s%n",
+                received, standIn.getAccepted(), standIn.getRejected(), Math.max(0, total - received), elapsed, received / elapsed);
+        System.out.println("disconnects: " + standIn.getDisconnects() + ", reconnect: " + connection.getReconnectLatency());
+        System.out.println("max queue depth: " + connection.getMaxQueueDepth());
+        System.out.println("queue to stand-in: " + endToEnd);
+        System.out.println("p99.9 <= " + String.format("%.1f", endToEnd.getPercentile(99.9) / 1e3) + "us");
+        System.out.println(connection.getMetrics().getReport());
+    }
+}
@@ -0,0 +1,314 @@
+package nl.roboteamtwente.autoref.tools;
+
+import com.google.protobuf.ByteString;
+import org.robocup.ssl.proto.SslGcGameEvent;
+import org.robocup.ssl.proto.SslGcRcon;
+import org.robocup.ssl.proto.SslGcRconAutoref;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.*;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A stand-in for the autoRef interface of the ssl-game-controller, to test the GameController connection
+ * without the real GameController.
+ * <p>
+ * It follows the ssl_gc_rcon_autoref protocol: every reply carries a new token, and when a public key is
+ * given every message must be signed with the latest token, the same way the GameController verifies it.
+ * Replies can be delayed with jitter (in the order the messages were received), events can be rejected at
+ * random and connections can be dropped after a number of events.
+ */
+public class GameControllerStandIn implements Runnable, Closeable {
+    private final ServerSocket serverSocket;
+    private PublicKey publicKey;
+    private long replyDelay;
+    private long replyJitter;
+    private double rejectProbability;
+    private int disconnectAfter;
+    private Consumer<SslGcGameEvent.GameEvent> onGameEvent;
+    private final Random random = new Random(0);
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+
+    /**
+     * @param port the port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public GameControllerStandIn(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    /**
+     * Accept connections until the stand-in is closed, every connection is handled on its own thread.
+     */
+    @Override
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread thread = new Thread(() -> handle(socket), "gc-stand-in-client");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                //closed
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        ScheduledExecutorService replies = Executors.newSingleThreadScheduledExecutor();
+        try (socket) {
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            OutputStream output = new BufferedOutputStream(socket.getOutputStream());
+            Client client = new Client(output, replies);
+
+            String token = client.reply(SslGcRcon.ControllerReply.newBuilder(), 0);
+
+            SslGcRconAutoref.AutoRefRegistration registration = SslGcRconAutoref.AutoRefRegistration.parseDelimitedFrom(input);
+            if (registration == null) {
+                return;
+            }
+
+            SslGcRcon.ControllerReply.Builder registrationReply = SslGcRcon.ControllerReply.newBuilder();
+            String error = verify(registration.getSignature(), token, registration.toBuilder()
+                    .setSignature(registration.getSignature().toBuilder().setPkcs1V15(ByteString.EMPTY)).build().toByteArray());
+            if (registration.getIdentifier().isEmpty()) {
+                error = "Missing identifier";
+            }
+            if (error != null) {
+                client.reply(registrationReply.setStatusCode(SslGcRcon.ControllerReply.StatusCode.REJECTED).setReason(error), 0);
+                replies.shutdown();
+                replies.awaitTermination(1, TimeUnit.SECONDS);
+                return;
+            }
+            token = client.reply(registrationReply.setStatusCode(SslGcRcon.ControllerReply.StatusCode.OK), 0);
+
+            int events = 0;
+            while (true) {
+                SslGcRconAutoref.AutoRefToController message = SslGcRconAutoref.AutoRefToController.parseDelimitedFrom(input);
+                if (message == null) {
+                    return;
+                }
+
+                SslGcRcon.ControllerReply.Builder reply = SslGcRcon.ControllerReply.newBuilder();
+                error = verify(message.getSignature(), token, message.toBuilder()
+                        .setSignature(message.getSignature().toBuilder().setPkcs1V15(ByteString.EMPTY)).build().toByteArray());
+                if (error == null && !message.hasGameEvent()) {
+                    error = "Missing game event";
+                }
+                if (error == null && random.nextDouble() < rejectProbability) {
+                    error = "Rejected by stand-in";
+                }
+
+                if (error == null) {
+                    accepted.incrementAndGet();
+                    if (onGameEvent != null) {
+                        onGameEvent.accept(message.getGameEvent());
+                    }
+                    reply.setStatusCode(SslGcRcon.ControllerReply.StatusCode.OK);
+                } else {
+                    rejected.incrementAndGet();
+                    reply.setStatusCode(SslGcRcon.ControllerReply.StatusCode.REJECTED).setReason(error);
+                }
+                token = client.reply(reply, getDelay());
+
+                if (disconnectAfter > 0 && ++events >= disconnectAfter) {
+                    //drop the connection without sending the replies that are still delayed
+                    disconnects.incrementAndGet();
+                    return;
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            //connection closed
+        } finally {
+            replies.shutdownNow();
+        }
+    }
+
+    /**
+     * Verify the signature of a message like the GameController does.
+     *
+     * @return the reason the message is rejected, or null if it is valid
+     */
+    private String verify(SslGcRcon.Signature signature, String token, byte[] unsigned) {
+        if (publicKey == null) {
+            return null;
+        }
+        if (!signature.getToken().equals(token)) {
+            return "Invalid token: " + signature.getToken() + " != " + token;
+        }
+
+        try {
+            Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(publicKey);
+            verifier.update(unsigned);
+            return verifier.verify(signature.getPkcs1V15().toByteArray()) ? null : "Invalid signature";
+        } catch (NoSuchAlgorithmException | InvalidKeyException | SignatureException e) {
+            return "Invalid signature: " + e.getMessage();
+        }
+    }
+
+    private long getDelay() {
+        if (replyJitter <= 0) {
+            return replyDelay;
+        }
+        return replyDelay + (long) (random.nextDouble() * replyJitter);
+    }
+
+    /**
+     * @return the port the stand-in listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @param publicKey the key to verify messages with, or null to accept unverified messages
+     */
+    public void setPublicKey(PublicKey publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    /**
+     * @param replyDelay  the minimum time before a reply is sent (in ms)
+     * @param replyJitter the maximum random time added to the delay (in ms)
+     */
+    public void setReplyDelay(long replyDelay, long replyJitter) {
+        this.replyDelay = replyDelay;
+        this.replyJitter = replyJitter;
+    }
+
+    /**
+     * @param rejectProbability the probability that a valid game event is rejected anyway
+     */
+    public void setRejectProbability(double rejectProbability) {
+        this.rejectProbability = rejectProbability;
+    }
+
+    /**
+     * @param disconnectAfter drop a connection after this many game events, 0 to never drop connections
+     */
+    public void setDisconnectAfter(int disconnectAfter) {
+        this.disconnectAfter = disconnectAfter;
+    }
+
+    /**
+     * @param onGameEvent called with every accepted game event, on the thread of the connection
+     */
+    public void setOnGameEvent(Consumer<SslGcGameEvent.GameEvent> onGameEvent) {
+        this.onGameEvent = onGameEvent;
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getDisconnects() {
+        return disconnects.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    /**
+     * Load a PEM encoded X.509 public key (-----BEGIN PUBLIC KEY-----).
+     *
+     * @param file the key file
+     * @return the public key
+     * @throws IOException if the file cannot be read or does not contain an RSA key
+     */
+    public static PublicKey loadPublicKey(Path file) throws IOException {
+        String pem = Files.readString(file, StandardCharsets.US_ASCII)
+                .replace("-----BEGIN PUBLIC KEY-----", "")
+                .replace("-----END PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(pem)));
+        } catch (IllegalArgumentException | NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IOException("Invalid key file " + file + ", expected an X.509 RSA public key", e);
+        }
+    }
+
+    /**
+     * Run the stand-in on its own.
+     * Usage: GameControllerStandIn [port] [public key file] [delay ms] [jitter ms] [reject probability] [disconnect after]
+     */
+    public static void main(String[] args) throws IOException {
+        GameControllerStandIn standIn = new GameControllerStandIn(args.length > 0 ? Integer.parseInt(args[0]) : 10007);
+        if (args.length > 1 && !args[1].isEmpty() && !args[1].equals("-")) {
+            standIn.setPublicKey(loadPublicKey(Path.of(args[1])));
+        }
+        standIn.setReplyDelay(args.length > 2 ? Long.parseLong(args[2]) : 0, args.length > 3 ? Long.parseLong(args[3]) : 0);
+        standIn.setRejectProbability(args.length > 4 ? Double.parseDouble(args[4]) : 0);
+        standIn.setDisconnectAfter(args.length > 5 ? Integer.parseInt(args[5]) : 0);
+        standIn.setOnGameEvent((gameEvent) -> System.out.println("Received " + gameEvent.getType()));
+
+        System.out.println("GameController stand-in listening on port " + standIn.getPort());
+        standIn.run();
+    }
+
+    /**
+     * Writes the replies of a single connection, in the order the messages were received.
+     */
+    private class Client {
+        private final OutputStream output;
+        private final ScheduledExecutorService replies;
+        private long lastReply;
+
+        private Client(OutputStream output, ScheduledExecutorService replies) {
+            this.output = output;
+            this.replies = replies;
+        }
+
+        /**
+         * Send a reply with a new token after the given delay.
+         *
+         * @return the new token, which the next message has to be signed with
+         */
+        private String reply(SslGcRcon.ControllerReply.Builder reply, long delay) {
+            String token = UUID.randomUUID().toString();
+            reply.setNextToken(token)
+                    .setVerification(publicKey != null ? SslGcRcon.ControllerReply.Verification.VERIFIED : SslGcRcon.ControllerReply.Verification.UNVERIFIED);
+            SslGcRconAutoref.ControllerToAutoRef message = SslGcRconAutoref.ControllerToAutoRef.newBuilder().setControllerReply(reply).build();
+
+            //a reply is never sent before the previous one
+            long due = Math.max(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay), lastReply);
+            lastReply = due;
+            replies.schedule(() -> {
+                try {
+                    message.writeDelimitedTo(output);
+                    output.flush();
+                } catch (SocketException e) {
+                    //connection closed
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, due - System.nanoTime(), TimeUnit.NANOSECONDS);
+            return token;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package nl.roboteamtwente.autoref.tools;
+
+import nl.roboteamtwente.autoref.FrameRecorder;
+import nl.roboteamtwente.autoref.FrameRecording;
+import nl.roboteamtwente.autoref.SSLAutoRef;
+import org.apache.commons.cli.*;
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Replays a recording of a {@link FrameRecorder} through the AutoRef as fast as possible, to see what a rule change
+ * does to a real match, or to profile the AutoRef on real data. The AutoRef only uses the time of the World, so a
+ * replay gives the same violations every time. The game events for the GameController are kept in memory.
+ * <p>
+ * The violations are compared with the violations in the recording, and listed when they differ.
+ * <p>
+ * Run with {@code ./gradlew replay --args="-i recording -rp rules.properties"}.
+ */
+public class Replay {
+    /**
+     * The violations and game events of a replay, and how long it took.
+     */
+    record Result(List<String> violations, Map<SslGcGameEvent.GameEvent.Type, Integer> gameEvents, long frames, long nanos) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options();
+        Option input = new Option("i", "input", true, "directory of the recording");
+        input.setRequired(true);
+        options.addOption(input);
+        options.addOption(new Option("rp", "rule-parameters", true, "rule parameter file to replay with"));
+        options.addOption(new Option("o", "output", true, "write the violations of the replay to this file"));
+        options.addOption(new Option("from", true, "start at this World time in seconds"));
+        options.addOption(new Option("to", true, "stop at this World time in seconds"));
+        options.addOption(new Option("n", "runs", true, "replay this many times, to profile or to check the replay is deterministic [default = 1]"));
+
+        CommandLine cmd;
+        try {
+            cmd = new DefaultParser().parse(options, args);
+        } catch (ParseException e) {
+            new HelpFormatter().printHelp("Replay", options);
+            System.exit(1);
+            return;
+        }
+
+        FrameRecording recording = new FrameRecording(Path.of(cmd.getOptionValue("i")));
+        double from = Double.parseDouble(cmd.getOptionValue("from", String.valueOf(Double.NEGATIVE_INFINITY)));
+        double to = Double.parseDouble(cmd.getOptionValue("to", String.valueOf(Double.POSITIVE_INFINITY)));
+        Path rules = cmd.hasOption("rp") ? Path.of(cmd.getOptionValue("rp")) : null;
+        //replaying with the default parameters would look like the rule change had no effect
+        if (rules != null && !Files.isRegularFile(rules)) {
+            System.err.println("Rule parameter file " + rules + " does not exist");
+            System.exit(1);
+        }
+        int runs = Integer.parseInt(cmd.getOptionValue("n", "1"));
+
+        //decompressing the recording is not part of what is measured
+        List<FrameRecording.Entry> entries = new ArrayList<>();
+        List<String> recorded = new ArrayList<>();
+        recording.forEach((entry) -> {
+            if (entry.time() < from || entry.time() > to) {
+                return;
+            }
+            if (entry.kind() == FrameRecorder.Kind.FRAME) {
+                entries.add(entry);
+            } else if (entry.kind() == FrameRecorder.Kind.VIOLATION) {
+                recorded.add(format(entry.time(), entry.text()));
+            }
+        });
+        if (entries.isEmpty()) {
+            System.err.println("No frames in the recording between " + from + " and " + to);
+            System.exit(1);
+        }
+        double duration = entries.get(entries.size() - 1).time() - entries.get(0).time();
+
+        Result first = null;
+        boolean deterministic = true;
+        for (int run = 0; run < runs; run++) {
+            Result result = replay(entries, rules);
+            System.out.printf("run %d: %d frames in %.2f s, %.0f frames/s, %.0fx real time%n", run + 1, result.frames(),
+                    result.nanos() / 1e9, result.frames() / (result.nanos() / 1e9), duration / (result.nanos() / 1e9));
+            if (first == null) {
+                first = result;
+            } else if (!first.violations().equals(result.violations())) {
+                deterministic = false;
+            }
+        }
+
+        if (runs > 1) {
+            System.out.println(deterministic ? "all runs gave the same violations" : "runs gave different violations");
+        }
+        System.out.println("violations: " + first.violations().size() + " replayed, " + recorded.size() + " recorded");
+        System.out.println("game events: " + first.gameEvents());
+        printDifference("only in the replay:", first.violations(), recorded);
+        printDifference("only in the recording:", recorded, first.violations());
+
+        if (cmd.hasOption("o")) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(Path.of(cmd.getOptionValue("o"))))) {
+                first.violations().forEach(out::println);
+            }
+        }
+        System.exit(deterministic ? 0 : 2);
+    }
+
+    /**
+     * Replay the frames through a new AutoRef, which is not connected to anything.
+     */
+    static Result replay(List<FrameRecording.Entry> frames, Path rules) {
+        List<String> violations = new ArrayList<>();
+        Map<SslGcGameEvent.GameEvent.Type, Integer> gameEvents = new TreeMap<>();
+        SSLAutoRef ref = createAutoRef(rules, violations, gameEvents);
+
+        long start = System.nanoTime();
+        for (FrameRecording.Entry entry : frames) {
+            ref.checkViolations(entry.frame());
+        }
+        ref.flushFrames();
+        return new Result(violations, gameEvents, frames.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Create an AutoRef which is not connected to anything, and which collects its violations and game events.
+     */
+    static SSLAutoRef createAutoRef(Path rules, List<String> violations, Map<SslGcGameEvent.GameEvent.Type, Integer> gameEvents) {
+        SSLAutoRef ref = new SSLAutoRef();
+        ref.setVerbose(false);
+        ref.setAutoConnect(false);
+        if (rules != null) {
+            ref.setRuleParameterFile(rules);
+        }
+
+        ref.setOnViolation((violation) -> violations.add(format(ref.getReferee().getGame().getTime(), violation.toString())));
+        ref.setOnGameEvent((gameEvent) -> gameEvents.merge(gameEvent.getType(), 1, Integer::sum));
+        return ref;
+    }
+
+    static String format(double time, String violation) {
+        return String.format(Locale.ROOT, "[%.3f] %s", time, violation);
+    }
+
+    private static void printDifference(String title, List<String> violations, List<String> other) {
+        //the same violation can be raised more than once, so the lists are compared as multisets
+        Map<String, Integer> remaining = new HashMap<>();
+        other.forEach((violation) -> remaining.merge(violation, 1, Integer::sum));
+
+        List<String> difference = new ArrayList<>();
+        for (String violation : violations) {
+            if (remaining.getOrDefault(violation, 0) > 0) {
+                remaining.merge(violation, -1, Integer::sum);
+            } else {
+                difference.add(violation);
+            }
+        }
+
+        if (!difference.isEmpty()) {
+            System.out.println(title);
+            difference.forEach((violation) -> System.out.println("    " + violation));
+        }
+    }
+}
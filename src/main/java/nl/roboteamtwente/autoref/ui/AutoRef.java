@@ -27,6 +27,30 @@ public class AutoRef {
         Option headless_opt = new Option("cli", "headless mode");
         headless_opt.setRequired(false);
         options.addOption(headless_opt);
+        Option rp_opt = new Option("rp", "rule-parameters", true, "rule parameter file, reloaded when changed");
+        options.addOption(rp_opt);
+        Option shadow_opt = new Option("shadow", "shadow-validators", true, "candidate validators to run in shadow mode, as candidate:production[,...]");
+        options.addOption(shadow_opt);
+        Option gckey_opt = new Option("gck", "gc-key", true, "PKCS#8 private key file used to sign messages to the game controller");
+        options.addOption(gckey_opt);
+        Option gcjournal_opt = new Option("gcj", "gc-journal", true, "journal file for game events that are not acknowledged by the game controller");
+        options.addOption(gcjournal_opt);
+        Option gcage_opt = new Option("gcage", "gc-event-age", true, "maximum age in seconds of a game event that is (re)sent to the game controller");
+        options.addOption(gcage_opt);
+        Option ref_opt = new Option("ref", "referee-multicast", true, "receive referee messages directly from the game controller, as group:port (e.g. 224.5.23.1:10003)");
+        options.addOption(ref_opt);
+        Option refif_opt = new Option("refif", "referee-interface", true, "network interface to receive referee messages and tracker frames on");
+        options.addOption(refif_opt);
+        Option tracker_opt = new Option("tracker", "tracker-multicast", true, "receive frames from an SSL-Vision tracker instead of the world, as group:port (e.g. 224.5.23.2:10010)");
+        options.addOption(tracker_opt);
+        Option ci_opt = new Option("ci", "ci-port", true, "run in lockstep with a game controller in CI mode, which connects to this port (e.g. 10013)");
+        options.addOption(ci_opt);
+        Option camtouch_opt = new Option("camtouch", "camera-touches", false, "also detect touches in the raw camera frames, between world frames");
+        options.addOption(camtouch_opt);
+        Option fd_opt = new Option("fd", "frame-delay", true, "hold frames this many ms to put frames that arrive out of order back in order [default = 0]");
+        options.addOption(fd_opt);
+        Option rec_opt = new Option("rec", "record", true, "record every frame with the touches, state changes and violations to this directory, which must not have a recording yet");
+        options.addOption(rec_opt);
 
         CommandLineParser parser = new DefaultParser();
         HelpFormatter formatter = new HelpFormatter();
@@ -45,17 +69,29 @@ public class AutoRef {
         String gcport = cmd.getOptionValue("gcp","10007");
         boolean nogc = cmd.hasOption("nogc");
         boolean headless = cmd.hasOption("cli");
+        String rp = cmd.getOptionValue("rp","");
+        String shadow = cmd.getOptionValue("shadow","");
+        String gckey = cmd.getOptionValue("gck","");
+        String gcjournal = cmd.getOptionValue("gcj","");
+        String gcage = cmd.getOptionValue("gcage","5.0");
+        String referee = cmd.getOptionValue("ref","");
+        String refereeInterface = cmd.getOptionValue("refif","");
+        String tracker = cmd.getOptionValue("tracker","");
+        String ci = cmd.getOptionValue("ci","");
+        boolean cameraTouches = cmd.hasOption("camtouch");
+        String frameDelay = cmd.getOptionValue("fd","0");
+        String record = cmd.getOptionValue("rec","");
 
         if(headless){
             System.out.println("Running Headless");
             controller = new AutoRefController();
             controller.initialize_headless();
-            controller.start(wip,wp,gcip,gcport,nogc,headless);
+            controller.start(wip,wp,gcip,gcport,nogc,headless,rp,shadow,gckey,gcjournal,gcage,referee,refereeInterface,tracker,ci,cameraTouches,frameDelay,record);
         }
         else
         {
             Application.launch(AutoRefUi.class,wip,wp,gcip,gcport,
-                            String.valueOf(nogc),String.valueOf(headless));
+                            String.valueOf(nogc),String.valueOf(headless),rp,shadow,gckey,gcjournal,gcage,referee,refereeInterface,tracker,ci,String.valueOf(cameraTouches),frameDelay,record);
         }
     }
 }
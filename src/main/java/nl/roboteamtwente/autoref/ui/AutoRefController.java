@@ -12,9 +12,17 @@ import javafx.scene.control.ListView;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
+import nl.roboteamtwente.autoref.GameControllerConnection;
+import nl.roboteamtwente.autoref.FrameRecorder;
+import nl.roboteamtwente.autoref.GameEventJournal;
+import nl.roboteamtwente.autoref.RefereeConnection;
+import nl.roboteamtwente.autoref.TrackerConnection;
 import nl.roboteamtwente.autoref.SSLAutoRef;
+import nl.roboteamtwente.autoref.ShadowValidation;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
@@ -96,9 +104,59 @@ public class AutoRefController implements Initializable {
     }
 
     public void start(String ipWorld, String portWorld, String ipGameController, 
-                        String portGameController, boolean noGC, boolean headless) {
+                        String portGameController, boolean noGC, boolean headless, String ruleParameterFile,
+                        String shadowValidators, String gameControllerKeyFile, String gameEventJournal,
+                        String maxEventAge, String refereeMulticast, String refereeInterface, String trackerMulticast,
+                        String ciPort, boolean cameraTouches, String frameDelay, String record) {
         try {
             setHeadless(headless);
+            sslAutoRef.setCameraTouchDetection(cameraTouches);
+            if (!ruleParameterFile.isEmpty()) {
+                sslAutoRef.setRuleParameterFile(Path.of(ruleParameterFile));
+            }
+            for (String pair : shadowValidators.split(",")) {
+                if (pair.isBlank()) {
+                    continue;
+                }
+
+                String[] names = pair.split(":");
+                if (names.length != 2) {
+                    System.err.println("Shadow validators should be given as candidate:production, got " + pair);
+                    System.exit(1);
+                }
+                sslAutoRef.addShadowValidator(ShadowValidation.createValidator(names[0].trim()), ShadowValidation.createValidator(names[1].trim()));
+            }
+            if (!gameControllerKeyFile.isEmpty()) {
+                sslAutoRef.setGameControllerKey(GameControllerConnection.loadPrivateKey(Path.of(gameControllerKeyFile)));
+            }
+            if (!gameEventJournal.isEmpty()) {
+                sslAutoRef.setGameEventJournal(new GameEventJournal(Path.of(gameEventJournal), GameEventJournal.DEFAULT_SIZE));
+            }
+            if (!record.isEmpty()) {
+                sslAutoRef.setFrameRecorder(new FrameRecorder(Path.of(record), FrameRecorder.DEFAULT_SEGMENT_SIZE));
+            }
+            sslAutoRef.setMaxEventAge(Double.parseDouble(maxEventAge));
+            sslAutoRef.setFrameDelay(Double.parseDouble(frameDelay));
+            //the tracker does not publish referee messages, so they are needed from the GameController
+            if (refereeMulticast.isEmpty() && !trackerMulticast.isEmpty()) {
+                refereeMulticast = RefereeConnection.DEFAULT_GROUP + ":" + RefereeConnection.DEFAULT_PORT;
+            }
+            if (!refereeMulticast.isEmpty()) {
+                String[] address = refereeMulticast.split(":");
+                sslAutoRef.setRefereeMulticast(address[0],
+                        address.length > 1 ? Integer.parseInt(address[1]) : RefereeConnection.DEFAULT_PORT,
+                        refereeInterface.isEmpty() ? null : refereeInterface);
+            }
+            if (!trackerMulticast.isEmpty()) {
+                String[] address = trackerMulticast.split(":");
+                sslAutoRef.setTrackerMulticast(address[0],
+                        address.length > 1 ? Integer.parseInt(address[1]) : TrackerConnection.DEFAULT_PORT,
+                        TrackerConnection.DEFAULT_VISION_PORT,
+                        refereeInterface.isEmpty() ? null : refereeInterface);
+            }
+            if (!ciPort.isEmpty()) {
+                sslAutoRef.setCiPort(Integer.parseInt(ciPort));
+            }
             if(!isHeadless){
                 modeBox.setValue(noGC ? "No GameController Connection" : "Automatically Connect");
             }
@@ -108,7 +166,10 @@ public class AutoRefController implements Initializable {
                             Integer.valueOf(portGameController));
 
         } catch (NumberFormatException e) {
-            System.err.println("Failed to parse port program argument.");
+            System.err.println("Failed to parse port, event age or frame delay program argument.");
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Failed to load GameController key or journal, or to create the recording: " + e.getMessage());
             System.exit(1);
         }
     }
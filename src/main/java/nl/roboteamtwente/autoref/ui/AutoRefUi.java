@@ -23,7 +23,19 @@ public class AutoRefUi extends Application {
         controller.start(getParameters().getRaw().get(0),getParameters().getRaw().get(1),
                         getParameters().getRaw().get(2),getParameters().getRaw().get(3),
                         Boolean.valueOf(getParameters().getRaw().get(4)),
-                        Boolean.valueOf(getParameters().getRaw().get(5)));
+                        Boolean.valueOf(getParameters().getRaw().get(5)),
+                        getParameters().getRaw().get(6),
+                        getParameters().getRaw().get(7),
+                        getParameters().getRaw().get(8),
+                        getParameters().getRaw().get(9),
+                        getParameters().getRaw().get(10),
+                        getParameters().getRaw().get(11),
+                        getParameters().getRaw().get(12),
+                        getParameters().getRaw().get(13),
+                        getParameters().getRaw().get(14),
+                        Boolean.valueOf(getParameters().getRaw().get(15)),
+                        getParameters().getRaw().get(16),
+                        getParameters().getRaw().get(17));
     }
 
     @Override
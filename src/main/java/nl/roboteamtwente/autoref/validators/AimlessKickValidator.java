@@ -3,13 +3,13 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
 
 
 public class AimlessKickValidator implements RuleValidator {
-    private static final double GRACE_PERIOD = 2.0;
     private double lastViolation = Double.NEGATIVE_INFINITY;
 
     @Override
@@ -34,7 +34,7 @@ public class AimlessKickValidator implements RuleValidator {
 
         //Check if the bot retrieved was in their own half before the ball went out.
         if (game.getField().isInOwnHalf(byBot.getTeam().getSide(), touch.getEndLocation().xy())
-                && game.getTime() - lastViolation > GRACE_PERIOD) {
+                && game.getTime() - lastViolation > game.getParameters().get(RuleParameter.GRACE_PERIOD)) {
 
             //If the ball left the right goal line and the side of the bot was left then an aimless kick happened.
             if (game.getBall().getPosition().getX() > rightGoalLine.p1().getX()
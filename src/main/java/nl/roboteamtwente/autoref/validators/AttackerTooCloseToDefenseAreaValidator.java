@@ -3,6 +3,7 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -14,21 +15,11 @@ import static java.lang.Math.abs;
 
 public class AttackerTooCloseToDefenseAreaValidator implements RuleValidator {
 
-    /**
-     * Time in seconds that the violation should not trigger for a robot
-     */
-    private static final double GRACE_PERIOD = 2.0;
-
     /**
      * Map of the last violation with a grace period
      */
     private final Map<RobotIdentifier, Double> lastViolations = new HashMap<>();
 
-    /**
-     * The distance from the defender area lines that the violation will begin to trigger
-     */
-    private static final double MAX_DISTANCE = 0.2;
-
     /**
      * The validate method of this validator checks if there is a robot within 0.2m of the opponent's defender area.
      * @param game The game object being validated
@@ -41,7 +32,13 @@ public class AttackerTooCloseToDefenseAreaValidator implements RuleValidator {
             return null;
         }
 
-        if (game.getTimeLastGameStateChange() + GRACE_PERIOD > game.getTime()){
+        // The time in seconds that the violation should not trigger for a robot
+        double gracePeriod = game.getParameters().get(RuleParameter.GRACE_PERIOD);
+
+        // The distance from the defender area lines that the violation will begin to trigger
+        double maxDistance = game.getParameters().get(RuleParameter.DEFENSE_AREA_DISTANCE);
+
+        if (game.getTimeLastGameStateChange() + gracePeriod > game.getTime()){
             // 2 seconds have not been passed since the last game state changed
             return null;
         }
@@ -71,18 +68,18 @@ public class AttackerTooCloseToDefenseAreaValidator implements RuleValidator {
 
             // Check if robot is within defender area
             if (field.isInDefenseArea(opponentSide, robot.getPosition().xy())) {
-                if (!lastViolations.containsKey(robot.getIdentifier()) || lastViolations.get(robot.getIdentifier()) + GRACE_PERIOD < game.getTime()) {
+                if (!lastViolations.containsKey(robot.getIdentifier()) || lastViolations.get(robot.getIdentifier()) + gracePeriod < game.getTime()) {
                     lastViolations.put(robot.getIdentifier(), game.getTime());
                     return new Violation(robot.getTeam().getColor(), robot.getIdentifier(), robot.getPosition().xy(), distance, game.getBall().getPosition().xy());
                 }
             }
 
             // Check if robot's X is within 0.2 m of the defender area
-            if (robotX + robot.getRadius() > lineX - MAX_DISTANCE) {
+            if (robotX + robot.getRadius() > lineX - maxDistance) {
 
                 // Check if robot's Y is also within 0.2m of the defender area
                 // Can use the absolute value of the Y position as the Y coordinate is mirrored from the middle line of the field
-                if (abs(robotY) - robot.getRadius() < abs(lineY) + MAX_DISTANCE) {
+                if (abs(robotY) - robot.getRadius() < abs(lineY) + maxDistance) {
 
                     if (abs(robotY) - robot.getRadius() < abs(lineY)) {
                         // Robot is in front of the line
@@ -97,14 +94,14 @@ public class AttackerTooCloseToDefenseAreaValidator implements RuleValidator {
                     if (robotX < lineX && abs(robotY) - robot.getRadius() > abs(lineY)) {
                         // Robot is in one of the corners, use pythagorean theorem to get distance to that corner
                         distance = (float) (Math.sqrt(Math.pow(lineX - robotX, 2) + Math.pow(abs(lineY) - abs(robotY), 2)) - robot.getRadius());
-                        if (distance > MAX_DISTANCE) {
+                        if (distance > maxDistance) {
                             // Robot is not within 0.2m of the corner, so check next robot
                             continue;
                         }
                     }
 
                     // Finally check if the violation has not been triggered for this robot yet in the past 2 seconds
-                    if (!lastViolations.containsKey(robot.getIdentifier()) || lastViolations.get(robot.getIdentifier()) + GRACE_PERIOD < game.getTime()) {
+                    if (!lastViolations.containsKey(robot.getIdentifier()) || lastViolations.get(robot.getIdentifier()) + gracePeriod < game.getTime()) {
                         lastViolations.put(robot.getIdentifier(), game.getTime());
                         // If this returns 0 and the robot is not in the defender area, something's wrong
                         return new Violation(robot.getTeam().getColor(), robot.getIdentifier(), robot.getPosition().xy(), distance, game.getBall().getPosition().xy());
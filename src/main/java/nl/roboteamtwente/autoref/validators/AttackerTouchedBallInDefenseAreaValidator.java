@@ -3,6 +3,7 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -12,11 +13,6 @@ import java.util.Map;
 
 public class AttackerTouchedBallInDefenseAreaValidator implements RuleValidator {
 
-    /**
-     * The grace period allowed for the robot to be in the defense area.
-     */
-    private static final double GRACE_PERIOD = 2.0;
-
     /**
      * Violations map to determine who did the violation and when.
      */
@@ -40,7 +36,7 @@ public class AttackerTouchedBallInDefenseAreaValidator implements RuleValidator
                 continue;
             }
 
-            if (!lastViolations.containsKey(robot.getIdentifier()) || lastViolations.get(robot.getIdentifier()) + GRACE_PERIOD < game.getTime()) {
+            if (!lastViolations.containsKey(robot.getIdentifier()) || lastViolations.get(robot.getIdentifier()) + game.getParameters().get(RuleParameter.GRACE_PERIOD) < game.getTime()) {
                 lastViolations.put(robot.getIdentifier(), game.getTime());
                 return new Violation(robot.getTeam().getColor(),robot.getIdentifier(), robot.getPosition().xy());
             }
@@ -3,21 +3,21 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
 
 public class BallLeftFieldGoalLineValidator implements RuleValidator {
 
-    private static final double GRACE_PERIOD = 2.0;
     private double lastViolations = Double.NEGATIVE_INFINITY;
 
 
     /**
      * The validate method of this class determines whether an any robot has caused the ball
-     * to exit the right or left goal lines. The X coordinate of the ball is compared against
-     * the X coordinates of the left and/or right goal lines to determine if the ball did indeed cross
-     * those lines. The robot that last touched the ball is the one responsible for the exiting of
+     * to exit the right or left goal lines. The path of the ball since the previous frame is
+     * intersected with the goal lines, so the exact point where the ball left the field is known.
+     * The robot that last touched the ball is the one responsible for the exiting of
      * the ball and hence the violation.
      *
      * @param game the game object being validated
@@ -25,27 +25,20 @@ public class BallLeftFieldGoalLineValidator implements RuleValidator {
      */
     @Override
     public RuleViolation validate(Game game) {
-        Vector3 ball = game.getBall().getPosition();
-        FieldLine rightGoalLine = game.getField().getLineByName("RightGoalLine");
-        FieldLine leftGoalLine = game.getField().getLineByName("LeftGoalLine");
-
-        // Lines are sometimes not present for some reason with some log-file tests not related to this rule
-        if (rightGoalLine == null || leftGoalLine == null) {
-            return null;
-        }
+        for (LineCrossing crossing : game.getLineCrossings()) {
+            if (!crossing.leaving() || (crossing.line() != LineCrossing.Line.LEFT_GOAL_LINE && crossing.line() != LineCrossing.Line.RIGHT_GOAL_LINE)) {
+                continue;
+            }
 
-        if (ball.getX() > rightGoalLine.p1().getX() || ball.getX() < leftGoalLine.p1().getX()) {
             if (game.getLastStartedTouch() == null) {
                 return null;
             }
 
             RobotIdentifier byBot = game.getBall().getLastTouchStarted().getBy();
-            if (game.getTime() - lastViolations > GRACE_PERIOD) {
-                lastViolations = game.getTime();
-                return new Violation(byBot.teamColor(), byBot.id(), ball.xy());
+            if (crossing.time() - lastViolations > game.getParameters().get(RuleParameter.GRACE_PERIOD)) {
+                lastViolations = crossing.time();
+                return new Violation(byBot.teamColor(), byBot.id(), crossing.location());
             }
-        } else {
-            lastViolations = Double.NEGATIVE_INFINITY;
         }
         return null;
     }
@@ -3,6 +3,7 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -10,14 +11,13 @@ import org.robocup.ssl.proto.SslGcGeometry;
 public class BallLeftFieldTouchLineValidator implements RuleValidator {
 
 
-    private static final double GRACE_PERIOD = 2.0;
     private double lastViolations = Double.NEGATIVE_INFINITY;
 
     /**
      * The validate method of this class determines whether any robot has caused the ball
-     * to exit the upper or lower touch lines. The Y coordinate of the ball is compared against
-     * the Y coordinates of the upper and/or lower lines to determine if the ball did indeed cross
-     * the lines. The robot that last touched the ball is the one responsible for the exiting of
+     * to exit the upper or lower touch lines. The path of the ball since the previous frame is
+     * intersected with the touch lines, so the exact point where the ball left the field is known.
+     * The robot that last touched the ball is the one responsible for the exiting of
      * the ball and hence the violation.
      *
      * @param game the game object being validated
@@ -25,27 +25,20 @@ public class BallLeftFieldTouchLineValidator implements RuleValidator {
      */
     @Override
     public RuleViolation validate(Game game) {
-        Vector3 ball = game.getBall().getPosition();
-        FieldLine bottomTouchLine = game.getField().getLineByName("BottomTouchLine");
-        FieldLine topTouchLine = game.getField().getLineByName("TopTouchLine");
-
-        // Lines are sometimes not present for some reason with some log-file tests not related to this rule
-        if (bottomTouchLine == null || topTouchLine == null) {
-            return null;
-        }
+        for (LineCrossing crossing : game.getLineCrossings()) {
+            if (!crossing.leaving() || (crossing.line() != LineCrossing.Line.TOP_TOUCH_LINE && crossing.line() != LineCrossing.Line.BOTTOM_TOUCH_LINE)) {
+                continue;
+            }
 
-        if (ball.getY() > topTouchLine.p1().getY() || ball.getY() < bottomTouchLine.p1().getY()) {
             if (game.getBall().getLastTouchStarted() == null) {
                 return null;
             }
 
             RobotIdentifier byBot = game.getBall().getLastTouchStarted().getBy();
-            if (game.getTime() - lastViolations > GRACE_PERIOD) {
-                lastViolations = game.getTime();
-                return new Violation(byBot.teamColor(), byBot.id(), ball.xy());
+            if (crossing.time() - lastViolations > game.getParameters().get(RuleParameter.GRACE_PERIOD)) {
+                lastViolations = crossing.time();
+                return new Violation(byBot.teamColor(), byBot.id(), crossing.location());
             }
-        } else {
-            lastViolations = Double.NEGATIVE_INFINITY;
         }
         return null;
     }
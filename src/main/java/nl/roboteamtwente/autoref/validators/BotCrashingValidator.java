@@ -3,6 +3,8 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
+import nl.roboteamtwente.autoref.parameters.RuleParameters;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -13,10 +15,6 @@ import java.util.Map;
 
 public class BotCrashingValidator implements RuleValidator {
 
-    private static final float BOT_CRASH_DISTANCE = 0.005f;
-    private static final float SPEED_VECTOR_THRESHOLD = 1.5f;
-    private static final float MIN_SPEED_DIFFERENCE = 0.3f;
-    private static final double GRACE_PERIOD = 2.0;
     //Map from robotId -> last violation time
     private final Map<RobotIdentifier, Double> lastViolations = new HashMap<>();
 
@@ -64,16 +62,17 @@ public class BotCrashingValidator implements RuleValidator {
 
 
     /**
-     * Check if the violation is still in GRACE_PERIOD
+     * Check if the violation is still in the grace period
      *
      * @param bot              - identifier of the bot
      * @param currentTimeStamp - the current time that detect violation again
-     * @return true if bot still under GRACE_PERIOD
+     * @param gracePeriod      - the grace period in seconds
+     * @return true if bot still under the grace period
      */
-    private boolean botStillOnCoolDown(RobotIdentifier bot, double currentTimeStamp) {
+    private boolean botStillOnCoolDown(RobotIdentifier bot, double currentTimeStamp, double gracePeriod) {
         if (lastViolations.containsKey(bot)) {
             Double timestampLastViolation = lastViolations.get(bot);
-            if (currentTimeStamp <= timestampLastViolation + GRACE_PERIOD) {
+            if (currentTimeStamp <= timestampLastViolation + gracePeriod) {
                 return true;
             } else {
                 lastViolations.remove(bot);
@@ -95,64 +94,61 @@ public class BotCrashingValidator implements RuleValidator {
         return Float.parseFloat(roundedFloatStr); // Parses the rounded string back into a float
     }
 
+    /**
+     * A crash is judged once, in the first frame two robots of different teams are in contact and no other crash
+     * is raised, with the velocities the robots had just before the impact.
+     */
     @Override
     public RuleViolation validate(Game game) {
-        for (Robot robotYellow : game.getTeam(TeamColor.YELLOW).getRobots()) {
-            if (botStillOnCoolDown(robotYellow.getIdentifier(), game.getTime())) {
+        RuleParameters parameters = game.getParameters();
+        double gracePeriod = parameters.get(RuleParameter.GRACE_PERIOD);
+
+        for (RobotContact contact : game.getRobotContacts()) {
+            //the first robot of a contact between two teams is blue
+            if (contact.isJudged() || contact.getFirst().teamColor() == contact.getSecond().teamColor()) {
+                continue;
+            }
+            contact.setJudged(true);
+            RobotIdentifier robotBlue = contact.getFirst();
+            RobotIdentifier robotYellow = contact.getSecond();
+            if (botStillOnCoolDown(robotYellow, game.getTime(), gracePeriod) || botStillOnCoolDown(robotBlue, game.getTime(), gracePeriod)) {
                 continue;
             }
-            for (Robot robotBlue : game.getTeam(TeamColor.BLUE).getRobots()) {
-                if (botStillOnCoolDown(robotBlue.getIdentifier(), game.getTime())) {
-                    continue;
-                }
-                Vector2 robotYellowPos = robotYellow.getPosition().xy();
-                Vector2 robotBluePos = robotBlue.getPosition().xy();
-                Vector2 robotYellowVel = robotYellow.getVelocity().xy();
-                Vector2 robotBlueVel = robotBlue.getVelocity().xy();
-                float distanceBetweenRobots = robotYellowPos.distance(robotBluePos);
-
-                if (distanceBetweenRobots > robotYellow.getRadius() + robotBlue.getRadius() + BOT_CRASH_DISTANCE) {
-                    continue;
-                }
-                // projection length of difference between speed vector
-                float crashSpeed = calculateCollisionVelocity(robotBluePos, robotBlueVel, robotYellowPos, robotYellowVel);
 
-                if (crashSpeed < SPEED_VECTOR_THRESHOLD) {
-                    continue;
-                }
-                //speed difference
-                float speedDiff = robotBlueVel.magnitude() - robotYellowVel.magnitude();
-                speedDiff = roundFloatTo1DecimalPlace(speedDiff);
-                //center position of 2 robots
-                Vector2 location = new Vector2(roundFloatTo1DecimalPlace((float) ((robotBluePos.getX() + robotYellowPos.getX()) * 0.5))
-                        , roundFloatTo1DecimalPlace((float) ((robotBluePos.getY() + robotYellowPos.getY()) * 0.5)));
-                float crashAngle = angleBetweenVectors(robotBlueVel, robotYellowVel);
-                crashAngle = roundFloatTo1DecimalPlace(crashAngle);
-                if (Math.abs(speedDiff) < MIN_SPEED_DIFFERENCE) {
-                    //crash drawn case
-                    int botBlue = robotBlue.getId();
-                    int botYellow = robotYellow.getId();
-                    lastViolations.put(robotBlue.getIdentifier(), game.getTime());
-                    lastViolations.put(robotYellow.getIdentifier(), game.getTime());
-                    return new BotCrashingValidator.CrashDrawnViolation(botBlue, botYellow, location, crashSpeed, speedDiff, crashAngle);
+            // projection length of difference between speed vector
+            float crashSpeed = contact.getImpactSpeed();
+            if (crashSpeed < parameters.get(RuleParameter.SPEED_VECTOR_THRESHOLD)) {
+                continue;
+            }
+            Vector2 robotBlueVel = contact.getFirstImpactVelocity();
+            Vector2 robotYellowVel = contact.getSecondImpactVelocity();
+            //speed difference
+            float speedDiff = robotBlueVel.magnitude() - robotYellowVel.magnitude();
+            speedDiff = roundFloatTo1DecimalPlace(speedDiff);
+            //center position of 2 robots
+            Vector2 location = new Vector2(roundFloatTo1DecimalPlace(contact.getLocation().getX()), roundFloatTo1DecimalPlace(contact.getLocation().getY()));
+            float crashAngle = angleBetweenVectors(robotBlueVel, robotYellowVel);
+            crashAngle = roundFloatTo1DecimalPlace(crashAngle);
+            lastViolations.put(robotBlue, game.getTime());
+            lastViolations.put(robotYellow, game.getTime());
+            if (Math.abs(speedDiff) < parameters.get(RuleParameter.MIN_SPEED_DIFFERENCE)) {
+                //crash drawn case
+                return new BotCrashingValidator.CrashDrawnViolation(robotBlue.id(), robotYellow.id(), location, crashSpeed, speedDiff, crashAngle);
+            } else {
+                //crash unique case
+                int violator;
+                int victim;
+                TeamColor byTeam;
+                if (speedDiff > 0) {
+                    byTeam = TeamColor.BLUE;
+                    violator = robotBlue.id();
+                    victim = robotYellow.id();
                 } else {
-                    //crash unique case
-                    int violator;
-                    int victim;
-                    TeamColor byTeam;
-                    if (speedDiff > 0) {
-                        byTeam = TeamColor.BLUE;
-                        violator = robotBlue.getId();
-                        victim = robotYellow.getId();
-                    } else {
-                        byTeam = TeamColor.YELLOW;
-                        violator = robotYellow.getId();
-                        victim = robotBlue.getId();
-                    }
-                    lastViolations.put(robotBlue.getIdentifier(), game.getTime());
-                    lastViolations.put(robotYellow.getIdentifier(), game.getTime());
-                    return new CrashUniqueViolation(distanceBetweenRobots, byTeam, violator, victim, location, crashSpeed, speedDiff, crashAngle);
+                    byTeam = TeamColor.YELLOW;
+                    violator = robotYellow.id();
+                    victim = robotBlue.id();
                 }
+                return new CrashUniqueViolation(contact.getImpactDistance(), byTeam, violator, victim, location, crashSpeed, speedDiff, crashAngle);
             }
         }
         return null;
@@ -161,6 +157,11 @@ public class BotCrashingValidator implements RuleValidator {
     @Override
     public void reset(Game game) {
         lastViolations.clear();
+
+        //contacts that started while the validator was inactive are not judged anymore
+        for (RobotContact contact : game.getRobotContacts()) {
+            contact.setJudged(true);
+        }
     }
 
     @Override
@@ -3,42 +3,60 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 public class BotDribbledBallTooFarValidator implements RuleValidator {
 
-    private static final double GRACE_PERIOD = 2.0;
 
     /**
      * Violations map to determine who did the violation and when.
      */
     private final Map<RobotIdentifier, Double> lastViolations = new HashMap<>();
 
+    /**
+     * Id of the last touch a violation was raised for per robot, a dribble is raised once.
+     */
+    private final Map<RobotIdentifier, Integer> lastViolatingTouches = new HashMap<>();
+
+    /**
+     * Checks the touches of the robots that have the ball, and the touch that ended last.
+     * The touches keep track of how far the ball got from where they started, so a dribble is raised
+     * in the frame it gets too far.
+     */
     @Override
     public RuleViolation validate(Game game) {
-        if (game.getFinishedTouches().isEmpty()) {
-            return null;
+        float maxDistance = game.getParameters().get(RuleParameter.MAX_DRIBBLE_DISTANCE);
+
+        for (Robot robot : game.getBall().getRobotsTouching()) {
+            RuleViolation violation = check(game, robot.getTouch(), maxDistance);
+            if (violation != null) {
+                return violation;
+            }
         }
+        return check(game, game.getLastFinishedTouch(), maxDistance);
+    }
 
-        for (Touch touch : game.getFinishedTouches()) {
-            Vector2 startLocation = touch.getStartLocation().xy();
-            Vector2 endLocation = touch.getEndLocation().xy();
-            Robot robot = game.getRobot(touch.getBy());
-            float dist = startLocation.distance(endLocation);
+    private RuleViolation check(Game game, Touch touch, float maxDistance) {
+        if (touch == null || touch.getMaxDisplacement() <= maxDistance) {
+            return null;
+        }
 
-            if (dist <= 1) {
-                continue;
-            }
+        RobotIdentifier robotID = touch.getBy();
+        if (Objects.equals(lastViolatingTouches.get(robotID), touch.getId())) {
+            return null;
+        }
 
-            if (!lastViolations.containsKey(robot.getIdentifier()) || lastViolations.get(robot.getIdentifier()) + GRACE_PERIOD < game.getTime()) {
-                lastViolations.put(robot.getIdentifier(), game.getTime());
-                return new Violation(robot.getTeam().getColor(), robot.getId(), startLocation, endLocation);
-            }
+        if (!lastViolations.containsKey(robotID) || lastViolations.get(robotID) + game.getParameters().get(RuleParameter.GRACE_PERIOD) < game.getTime()) {
+            lastViolations.put(robotID, game.getTime());
+            lastViolatingTouches.put(robotID, touch.getId());
+            return new Violation(robotID.teamColor(), robotID.id(), touch.getStartLocation().xy(), touch.getLastLocation());
         }
         return null;
     }
@@ -51,6 +69,7 @@ public class BotDribbledBallTooFarValidator implements RuleValidator {
     @Override
     public void reset(Game game) {
         lastViolations.clear();
+        lastViolatingTouches.clear();
     }
 
 
@@ -3,6 +3,7 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -12,8 +13,6 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class BotInterferedPlacementValidator implements RuleValidator {
-    private static final double GRACE_PERIOD = 2.0;
-
     private static final float MIN_DISTANCE_BETWEEN_ROBOT_AND_PLACEMENT = 0.5f;
 
     //Map from robotId -> last enter the distance <= MIN_DISTANCE_BETWEEN_ROBOT_AND_PLACEMENT
@@ -92,18 +91,19 @@ public class BotInterferedPlacementValidator implements RuleValidator {
     }
 
     /**
-     * Check if time a robot enter forbidden area is more than 2 seconds
+     * Check if time a robot enter forbidden area is more than the grace period
      *
      * @param bot              - identifier of the robot
      * @param currentTimeStamp - the time robot enter forbidden area
-     * @return true if robot enter more than 2 seconds else update the lastEnterForbidden Area
+     * @param gracePeriod      - the time a robot may be in the forbidden area
+     * @return true if robot enter more than the grace period else update the lastEnterForbidden Area
      */
 
-    public boolean checkViolation(RobotIdentifier bot, double currentTimeStamp) {
+    public boolean checkViolation(RobotIdentifier bot, double currentTimeStamp, double gracePeriod) {
         if (lastEnterForbiddenArea.containsKey(bot)) {
             Double timestampLastViolation = lastEnterForbiddenArea.get(bot);
-            // if enter forbidden area more than 2 second => return fault and reset enter forbidden area time
-            if (currentTimeStamp > timestampLastViolation + GRACE_PERIOD) {
+            // if enter forbidden area more than the grace period => return fault and reset enter forbidden area time
+            if (currentTimeStamp > timestampLastViolation + gracePeriod) {
                 lastEnterForbiddenArea.put(bot, currentTimeStamp);
                 return true;
             }
@@ -129,7 +129,7 @@ public class BotInterferedPlacementValidator implements RuleValidator {
                 Vector2 placementPos = game.getDesignatedPosition();
                 Vector2 ballPos = game.getBall().getPosition().xy();
                 if (calculateDistancePointToLine(ballPos, placementPos, robotPos, robot)) {
-                    if (checkViolation(robot.getIdentifier(), game.getTime())) {
+                    if (checkViolation(robot.getIdentifier(), game.getTime(), game.getParameters().get(RuleParameter.GRACE_PERIOD))) {
                         Vector2 roundRobotPos = new Vector2(roundFloatTo1DecimalPlace(robot.getPosition().getX()), roundFloatTo1DecimalPlace(robot.getPosition().getY()));
                         return new BotInterferedPlacementValidator.BotInterferedPlacementViolation(robot.getTeam().getColor(), robot.getId(), roundRobotPos, ballPos, placementPos);
                     }
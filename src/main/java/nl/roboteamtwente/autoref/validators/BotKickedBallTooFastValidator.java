@@ -3,6 +3,7 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -15,29 +16,40 @@ public class BotKickedBallTooFastValidator implements RuleValidator {
     // Hashmap of previous violations
     private final Map<RobotIdentifier, Double> lastViolations = new HashMap<>();
 
-    // Grace period in seconds
-    private static final double GRACE_PERIOD = 2.0;
+
+    // Id of the last touch that was judged, a kick is judged once
+    private int lastJudgedTouch = -1;
 
     /**
      * The validate method of this class determines whether the ball was kicked too fast.
+     * The kick speed is estimated over the first frames after the kick, a kick is judged as soon as
+     * the estimate is confident enough, and at the latest when the estimate is final.
      *
      * @param game the game object being validated
      * @return a violation for when the ball was kicked too fast by a bot.
      */
     @Override
     public RuleViolation validate(Game game) {
+        Touch touch = game.getLastFinishedTouch();
+        if (touch == null || touch.getId() == lastJudgedTouch) {
+            return null;
+        }
+        if (!touch.isKickSpeedFinal() && touch.getKickSpeedConfidence() < game.getParameters().get(RuleParameter.KICK_SPEED_CONFIDENCE)) {
+            return null;
+        }
+        lastJudgedTouch = touch.getId();
+
         // Ball speed in m/s
-        Ball ball = game.getBall();
-        float speed = ball.getVelocity().magnitude();
+        float speed = touch.getKickSpeed();
 
-        // If speed in one frame is higher than 6.5 m/s, ball was kicked too fast by the bot.
-        if (speed > 6.5) {
-            RobotIdentifier robotID = game.getLastStartedTouch().getBy();
+        // If the speed after the kick is higher than the maximum (6.5 m/s), ball was kicked too fast by the bot.
+        if (speed > game.getParameters().get(RuleParameter.MAX_BALL_SPEED)) {
+            RobotIdentifier robotID = touch.getBy();
             TeamColor team = robotID.teamColor();
-            Vector2 location = ball.getPosition().xy();
+            Vector2 location = touch.getEndLocation().xy();
 
             // Only if this violation has not been sent in the last 2 seconds, raise it
-            if (!lastViolations.containsKey(robotID) || lastViolations.get(robotID) + GRACE_PERIOD < game.getTime()) {
+            if (!lastViolations.containsKey(robotID) || lastViolations.get(robotID) + game.getParameters().get(RuleParameter.GRACE_PERIOD) < game.getTime()) {
                 lastViolations.put(robotID, game.getTime());
                 return new Violation(team, robotID.id(), location, speed);
             }
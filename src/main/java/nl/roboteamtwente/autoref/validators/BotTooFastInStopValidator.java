@@ -3,6 +3,7 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -12,11 +13,6 @@ import java.util.HashSet;
 import java.util.Set;
 
 public class BotTooFastInStopValidator implements RuleValidator {
-    private static final float MAX_SPEED_ALLOWED = 1.5f;
-
-    //GRACE PERIOD is 2 second after STOP start for robot to slow down
-    private static final double GRACE_PERIOD = 2.0;
-
     //Set of violators in STOP state
     private final Set<RobotIdentifier> violatorsSet = new HashSet<>();
 
@@ -25,14 +21,18 @@ public class BotTooFastInStopValidator implements RuleValidator {
 
     @Override
     public RuleViolation validate(Game game) {
-        if (game.getTime() - game.getTimeLastGameStateChange() <= GRACE_PERIOD) {
+        //grace period (2 seconds by default) after STOP start for robot to slow down
+        double gracePeriod = game.getParameters().get(RuleParameter.STOP_GRACE_PERIOD);
+        float maxSpeedAllowed = game.getParameters().get(RuleParameter.MAX_SPEED_ALLOWED);
+
+        if (game.getTime() - game.getTimeLastGameStateChange() <= gracePeriod) {
             return null;
         }
 
         for (TeamColor team : TeamColor.values()) {
-            if (!teamLastViolation.containsKey(team) || teamLastViolation.get(team) + GRACE_PERIOD > game.getTime()) {
+            if (!teamLastViolation.containsKey(team) || teamLastViolation.get(team) + gracePeriod > game.getTime()) {
                 for (Robot robot : game.getTeam(team).getRobots()) {
-                    RuleViolation violation = validateRobot(robot);
+                    RuleViolation violation = validateRobot(robot, maxSpeedAllowed);
                     if (violation != null) {
                         teamLastViolation.put(team, game.getTime());
                         return violation;
@@ -47,12 +47,13 @@ public class BotTooFastInStopValidator implements RuleValidator {
     /**
      * Check if the robot is too fast
      * @param robot robot
+     * @param maxSpeedAllowed maximum speed in m/s
      * @return violation record || null
      */
-    public RuleViolation validateRobot(Robot robot) {
+    public RuleViolation validateRobot(Robot robot, float maxSpeedAllowed) {
         float robotSpeed = robot.getVelocity().xy().magnitude();
         //Rule state: A robot must not move faster than 1.5 meters per second during stop. A violation of this rule is only counted once per robot and stoppage.
-        if (robotSpeed > MAX_SPEED_ALLOWED && !violatorsSet.contains(robot.getIdentifier())) {
+        if (robotSpeed > maxSpeedAllowed && !violatorsSet.contains(robot.getIdentifier())) {
             violatorsSet.add(robot.getIdentifier());
             return new BotTooFastInStopValidator.BotTooFastInStopViolation(robot.getId(), robot.getTeam().getColor(), robot.getPosition().xy(), robotSpeed);
         }
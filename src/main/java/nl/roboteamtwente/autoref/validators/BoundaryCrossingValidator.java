@@ -8,9 +8,6 @@ import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
 
 public class BoundaryCrossingValidator implements RuleValidator {
-    // We add a margin to correct for the small position error when the ball bounces off the boundary.
-    private static final float MARGIN = 0.7f + 0.05f;
-
     private boolean triggered = false;
 
     @Override
@@ -19,23 +16,19 @@ public class BoundaryCrossingValidator implements RuleValidator {
             return null;
         }
 
-        Vector2 location;
-        Vector3 ball = game.getBall().getPosition();
-
-        if (ball.getY() > game.getField().getPosition().getY() + game.getField().getSize().getY() + MARGIN
-                || ball.getY() < game.getField().getPosition().getY() - MARGIN
-                || ball.getX() > game.getField().getPosition().getX() + game.getField().getSize().getX() + MARGIN
-                || ball.getX() < game.getField().getPosition().getX() - MARGIN) {
+        // The boundary lies a margin outside the field, to correct for the small position error when the ball bounces off the boundary.
+        for (LineCrossing crossing : game.getLineCrossings()) {
+            if (!crossing.leaving() || crossing.line() != LineCrossing.Line.BOUNDARY) {
+                continue;
+            }
 
             Touch touch = game.getLastFinishedTouch();
-            location = ball.xy();
-
             triggered = true;
             if (touch != null) {
                 Robot byBot = game.getRobot(touch.getBy());
-                return new Violation(byBot.getTeam().getColor(), location);
+                return new Violation(byBot.getTeam().getColor(), crossing.location());
             } else {
-                return new Violation(null, location);
+                return new Violation(null, crossing.location());
             }
         }
 
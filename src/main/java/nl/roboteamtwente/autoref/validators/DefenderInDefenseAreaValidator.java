@@ -3,6 +3,7 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -14,19 +15,18 @@ public class DefenderInDefenseAreaValidator implements RuleValidator {
 
     private final Map<RobotIdentifier, Double> lastViolations = new HashMap<>();
 
-    private static final double GRACE_PERIOD = 2.0;
-
     /**
-     * Check if the violation is still in GRACE_PERIOD
+     * Check if the violation is still in the grace period
      *
      * @param bot              - identifier of the bot
      * @param currentTimeStamp - the current time that detect violation again
-     * @return true if bot still under GRACE_PERIOD
+     * @param gracePeriod      - the grace period in seconds
+     * @return true if bot still under the grace period
      */
-    private boolean botStillOnCoolDown(RobotIdentifier bot, double currentTimeStamp) {
+    private boolean botStillOnCoolDown(RobotIdentifier bot, double currentTimeStamp, double gracePeriod) {
         if (lastViolations.containsKey(bot)) {
             Double timestampLastViolation = lastViolations.get(bot);
-            if (currentTimeStamp <= timestampLastViolation + GRACE_PERIOD) {
+            if (currentTimeStamp <= timestampLastViolation + gracePeriod) {
                 return true;
             } else {
                 lastViolations.remove(bot);
@@ -65,7 +65,7 @@ public class DefenderInDefenseAreaValidator implements RuleValidator {
             float dist = Math.min(Math.abs(game.getLastStartedTouch().getStartLocation().getX() - penaltyStretch.p1().getX()),
                     Math.min(Math.abs( game.getLastStartedTouch().getStartLocation().getY() - rightPenaltyStretch.p1().getY()),
                     Math.abs(game.getLastStartedTouch().getStartLocation().getY() - leftPenaltyStretch.p1().getY())));
-            if (!botStillOnCoolDown(robot.getIdentifier(), game.getTime())) {
+            if (!botStillOnCoolDown(robot.getIdentifier(), game.getTime(), game.getParameters().get(RuleParameter.GRACE_PERIOD))) {
                 lastViolations.put(robot.getIdentifier(), game.getTime());
                 return new Violation(robot.getTeam().getColor(), robot.getId(), robot.getPosition().xy(), dist);
             }
@@ -3,6 +3,7 @@ package nl.roboteamtwente.autoref.validators;
 import nl.roboteamtwente.autoref.RuleValidator;
 import nl.roboteamtwente.autoref.RuleViolation;
 import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
 import org.robocup.ssl.proto.SslGcCommon;
 import org.robocup.ssl.proto.SslGcGameEvent;
 import org.robocup.ssl.proto.SslGcGeometry;
@@ -10,9 +11,6 @@ import org.robocup.ssl.proto.SslGcGeometry;
 
 public class DefenderTooCloseToKickPointValidator implements RuleValidator {
 
-    // Grace period in seconds for the robot to move away before the violation is raised again
-    private static final double GRACE_PERIOD = 2.0;
-
     // Game time in seconds since the last violation was raised
     private double lastViolation = Double.NEGATIVE_INFINITY;
 
@@ -46,7 +44,7 @@ public class DefenderTooCloseToKickPointValidator implements RuleValidator {
 
             // If robot is within 0.5m of the ball, it is too close
             if (distanceToBall < 0.5) {
-                if (lastViolation + GRACE_PERIOD < game.getTime()) {
+                if (lastViolation + game.getParameters().get(RuleParameter.GRACE_PERIOD) < game.getTime()) {
                     lastViolation = game.getTime();
                     return new Violation(robot.getTeam().getColor(), robot.getId(), robotPos, distanceToBall);
                 }
@@ -19,10 +19,10 @@ public class PlacementSucceededValidator implements RuleValidator {
 
     private static final float STATIONARY_THRESHOLD = 0.005f;
 
-    private static Vector3 initialBallPosition;
+    private Vector3 initialBallPosition;
 
     //Rule states: validator only raised 1 per ball placement
-    private static boolean issueValidator = false;
+    private boolean issueValidator = false;
 
     /**
      * Check if the ball is stationary with its velocity
@@ -12,53 +12,24 @@ public class PossibleGoalValidator implements RuleValidator {
     // Check if possible goal is raised
     private boolean isEventRaised = false;
 
-    /**
-     * Check if the ball position is inside the goal post
-     * Division A and B have different goal size
-     * @param game - the game that is currently taking place
-     * @param side - the side of the ball when enter the goal
-     * @param ballPos - the position of the ball
-     * @return true if ball is inside the goal otherwise false
-     */
-    boolean checkBallInsideGoal(Game game, Side side, Vector2 ballPos) {
-        float goalDepthLength = game.getField().getGoal().getDepth();
-        float goalWidthLength = game.getField().getGoal().getWidth();
-
-        String fieldLineName;
-        if (side.equals(Side.RIGHT)) {
-            fieldLineName = "RightGoalLine";
-        } else {
-            fieldLineName = "LeftGoalLine";
-        }
-        FieldLine fieldLine = game.getField().getLineByName(fieldLineName);
-        if (fieldLine != null) {
-            float fieldLineX = side.getCardinality() * fieldLine.p1().getX();
-            float goalBacksideX = fieldLineX + goalDepthLength;
-            float goalY = goalWidthLength / 2;
-            float ballX = side.getCardinality() * ballPos.getX();
-            float ballY = ballPos.getY();
-            
-            if (fieldLineX < ballX && ballX < goalBacksideX && -1 * goalY < ballY && ballY < goalY) {
-                System.out.println("Inside goal " + side);
-                return true;
-            }
-        }
-        return false;
-    }
-
     @Override
     public RuleViolation validate(Game game) {
         if (isEventRaised) {
             return null;
         }
-        Vector2 ballPos = game.getBall().getPosition().xy();
 
         Touch touch = game.getLastFinishedTouch();
         if (touch == null) {
             return null;
         }
-        Side ballSide = ballPos.getX() < 0 ? Side.LEFT : Side.RIGHT;
-        if (checkBallInsideGoal(game, ballSide, ballPos)) {
+
+        // the ball entered a goal if it crossed the goal line between the posts, even when it is out of the goal again
+        for (LineCrossing crossing : game.getLineCrossings()) {
+            if (!crossing.leaving() || (crossing.line() != LineCrossing.Line.LEFT_GOAL && crossing.line() != LineCrossing.Line.RIGHT_GOAL)) {
+                continue;
+            }
+
+            Side ballSide = crossing.line().getSide();
             Vector2 kickLocation = touch.getEndLocation().xy();
             RobotIdentifier kickBot = touch.getBy();
             TeamColor kickingTeam = kickBot.teamColor();
@@ -74,7 +45,7 @@ public class PossibleGoalValidator implements RuleValidator {
 
             int numRobotsByTeam = game.getTeam(byTeam).getRobots().size();
             isEventRaised = true;
-            return new PossibleGoalValidator.PossibleGoal(byTeam, kickingTeam, kickBot.id(), ballPos, kickLocation, 0f, numRobotsByTeam, (int) lastTouchTimeStampByTeam);
+            return new PossibleGoalValidator.PossibleGoal(byTeam, kickingTeam, kickBot.id(), crossing.location(), kickLocation, touch.getMaxBallHeight(), numRobotsByTeam, (int) lastTouchTimeStampByTeam);
         }
         return null;
     }
@@ -0,0 +1,85 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.proto.StateOuterClass;
+import nl.roboteamtwente.proto.WorldOuterClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameJitterBufferTest {
+    private static final long FRAME = 16_000_000L;
+
+    private static StateOuterClass.State frame(int id) {
+        return StateOuterClass.State.newBuilder()
+                .setCommandExtrapolatedWorld(WorldOuterClass.World.newBuilder().setTime(1_000_000_000L + id * FRAME).setId(id))
+                .build();
+    }
+
+    private static List<Integer> ids(List<StateOuterClass.State> frames) {
+        return frames.stream().map((frame) -> frame.getCommandExtrapolatedWorld().getId()).toList();
+    }
+
+    /**
+     * @return the ids of the frames released by offering the frames with the given ids, in order
+     */
+    private static List<Integer> offer(FrameJitterBuffer buffer, int... ids) {
+        List<Integer> released = new ArrayList<>();
+        for (int id : ids) {
+            released.addAll(ids(buffer.offer(frame(id))));
+        }
+        return released;
+    }
+
+    @Test
+    void withoutDelayFramesAreReleasedImmediately() {
+        FrameJitterBuffer buffer = new FrameJitterBuffer(0);
+        assertEquals(List.of(0), ids(buffer.offer(frame(0))));
+        assertEquals(List.of(1), ids(buffer.offer(frame(1))));
+        assertEquals(List.of(), ids(buffer.flush()));
+    }
+
+    @Test
+    void framesWithinTheDelayAreReordered() {
+        FrameJitterBuffer buffer = new FrameJitterBuffer(2 * FRAME);
+        assertEquals(List.of(0, 1, 2, 3), offer(buffer, 0, 2, 1, 4, 3, 5));
+        assertEquals(List.of(4, 5), ids(buffer.flush()));
+        assertEquals(2, buffer.getReordered());
+        assertEquals(0, buffer.getLate());
+    }
+
+    @Test
+    void duplicateAndLateFramesAreDropped() {
+        FrameJitterBuffer buffer = new FrameJitterBuffer(0);
+        assertEquals(List.of(0, 1, 3), offer(buffer, 0, 1, 1, 3, 2, 3));
+        assertEquals(2, buffer.getDuplicates());
+        assertEquals(1, buffer.getLate());
+        assertEquals(6, buffer.getReceived());
+    }
+
+    @Test
+    void duplicateOfAHeldFrameIsDropped() {
+        FrameJitterBuffer buffer = new FrameJitterBuffer(2 * FRAME);
+        assertEquals(List.of(), offer(buffer, 0, 1, 1));
+        assertEquals(1, buffer.getDuplicates());
+        assertEquals(List.of(0, 1), ids(buffer.flush()));
+    }
+
+    @Test
+    void missingFramesAreCounted() {
+        FrameJitterBuffer buffer = new FrameJitterBuffer(0);
+        offer(buffer, 0, 1, 4, 5, 7);
+        assertEquals(3, buffer.getMissing());
+    }
+
+    @Test
+    void startsOverWhenTheSourceRestarts() {
+        FrameJitterBuffer buffer = new FrameJitterBuffer(0);
+        assertEquals(List.of(1000, 1001), offer(buffer, 1000, 1001));
+        //much older than the last frame, so not late
+        assertEquals(List.of(0, 1), offer(buffer, 0, 1));
+        assertEquals(0, buffer.getLate());
+    }
+}
@@ -0,0 +1,161 @@
+package nl.roboteamtwente.autoref;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.robocup.ssl.proto.SslGcRcon;
+import org.robocup.ssl.proto.SslGcRconAutoref;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Timeout(10)
+class GameControllerConnectionTest {
+    private ServerSocket server;
+    private GameControllerConnection connection;
+    private Thread thread;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        server.setSoTimeout(5000);
+    }
+
+    @AfterEach
+    void stop() throws IOException, InterruptedException {
+        if (thread != null) {
+            connection.setAutoConnect(false);
+            thread.interrupt();
+            thread.join();
+        }
+        server.close();
+    }
+
+    /**
+     * Start a connection with the server.
+     *
+     * @param journal the journal of the connection, or null
+     */
+    private void start(GameEventJournal journal) {
+        connection = new GameControllerConnection();
+        connection.setJournal(journal);
+        connection.setIp(server.getInetAddress().getHostAddress());
+        connection.setPort(server.getLocalPort());
+        connection.setAutoConnect(true);
+        thread = new Thread(connection);
+        thread.start();
+    }
+
+    /**
+     * Accept a connection and register the AutoRef, like the GameController does.
+     *
+     * @param verified whether the signatures are verified, then only one event can be in flight
+     */
+    private Socket accept(boolean verified) throws IOException {
+        Socket socket = server.accept();
+        socket.setSoTimeout(5000);
+        reply(socket, SslGcRcon.ControllerReply.newBuilder().setNextToken("token"));
+        SslGcRconAutoref.AutoRefRegistration.parseDelimitedFrom(socket.getInputStream());
+        reply(socket, SslGcRcon.ControllerReply.newBuilder()
+                .setStatusCode(SslGcRcon.ControllerReply.StatusCode.OK)
+                .setNextToken("token")
+                .setVerification(verified ? SslGcRcon.ControllerReply.Verification.VERIFIED : SslGcRcon.ControllerReply.Verification.UNVERIFIED));
+        return socket;
+    }
+
+    private static void reply(Socket socket, SslGcRcon.ControllerReply.Builder reply) throws IOException {
+        SslGcRconAutoref.ControllerToAutoRef.newBuilder().setControllerReply(reply).build().writeDelimitedTo(socket.getOutputStream());
+        socket.getOutputStream().flush();
+    }
+
+    /**
+     * Receive a number of events, replying to each one if asked.
+     *
+     * @return the bots of the events, in the order they were received
+     */
+    private static List<Integer> receive(Socket socket, int count, boolean acknowledge) throws IOException {
+        List<Integer> bots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SslGcRconAutoref.AutoRefToController message = SslGcRconAutoref.AutoRefToController.parseDelimitedFrom(socket.getInputStream());
+            bots.add(message.getGameEvent().getBotCrashUnique().getViolator());
+            if (acknowledge) {
+                reply(socket, SslGcRcon.ControllerReply.newBuilder().setStatusCode(SslGcRcon.ControllerReply.StatusCode.OK).setNextToken("token"));
+            }
+        }
+        return bots;
+    }
+
+    @Test
+    void eventsInFlightAreSentFirstAfterReconnecting() throws IOException, InterruptedException {
+        start(null);
+        try (Socket socket = accept(false)) {
+            for (int i = 0; i < 3; i++) {
+                connection.addToQueue(GameEventJournalTest.event(i));
+            }
+            //the events are pipelined, and the connection is lost before any reply
+            assertEquals(List.of(0, 1, 2), receive(socket, 3, false));
+        }
+        connection.addToQueue(GameEventJournalTest.event(3));
+
+        try (Socket socket = accept(false)) {
+            assertEquals(List.of(0, 1, 2, 3), receive(socket, 4, true));
+            assertTrue(connection.awaitAcknowledged(5000));
+        }
+    }
+
+    @Test
+    void waitingEventsKeepTheirOrderAfterReconnecting() throws IOException, InterruptedException {
+        start(null);
+        try (Socket socket = accept(true)) {
+            for (int i = 0; i < 3; i++) {
+                connection.addToQueue(GameEventJournalTest.event(i));
+            }
+            //with verified signatures only the first event is in flight, the others wait for its reply
+            assertEquals(List.of(0), receive(socket, 1, false));
+        }
+        connection.addToQueue(GameEventJournalTest.event(3));
+
+        try (Socket socket = accept(true)) {
+            assertEquals(List.of(0, 1, 2, 3), receive(socket, 4, true));
+            assertTrue(connection.awaitAcknowledged(5000));
+        }
+    }
+
+    @Test
+    void unacknowledgedEventsOfAPreviousRunAreSentFirst() throws IOException, InterruptedException {
+        Path file = directory.resolve("journal");
+        try (GameEventJournal journal = new GameEventJournal(file, GameEventJournal.DEFAULT_SIZE)) {
+            long now = System.currentTimeMillis();
+            journal.append(GameEventJournalTest.event(0), now);
+            journal.append(GameEventJournalTest.event(1), now);
+            journal.append(GameEventJournalTest.event(2), now);
+            journal.acknowledge(0);
+        }
+
+        start(new GameEventJournal(file, GameEventJournal.DEFAULT_SIZE));
+        try (Socket socket = accept(true)) {
+            connection.addToQueue(GameEventJournalTest.event(3));
+            assertEquals(List.of(1, 2, 3), receive(socket, 3, true));
+            assertTrue(connection.awaitAcknowledged(5000));
+        }
+
+        //the connection closes the journal when it stops
+        stop();
+        thread = null;
+        try (GameEventJournal journal = new GameEventJournal(file, GameEventJournal.DEFAULT_SIZE)) {
+            assertTrue(journal.getUnacknowledged().isEmpty());
+        }
+    }
+}
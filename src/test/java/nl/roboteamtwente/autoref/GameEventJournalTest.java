@@ -0,0 +1,129 @@
+package nl.roboteamtwente.autoref;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.robocup.ssl.proto.SslGcCommon;
+import org.robocup.ssl.proto.SslGcGameEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventJournalTest {
+    @TempDir
+    Path directory;
+
+    static SslGcGameEvent.GameEvent event(int bot) {
+        return SslGcGameEvent.GameEvent.newBuilder()
+                .setType(SslGcGameEvent.GameEvent.Type.BOT_CRASH_UNIQUE)
+                .setBotCrashUnique(SslGcGameEvent.GameEvent.BotCrashUnique.newBuilder()
+                        .setByTeam(SslGcCommon.Team.BLUE)
+                        .setViolator(bot))
+                .build();
+    }
+
+    static List<Integer> bots(List<GameEventJournal.Entry> entries) {
+        return entries.stream().map((entry) -> entry.gameEvent().getBotCrashUnique().getViolator()).toList();
+    }
+
+    @Test
+    void appendAcknowledgeAndReopen() throws IOException {
+        Path file = directory.resolve("journal");
+        try (GameEventJournal journal = new GameEventJournal(file, GameEventJournal.DEFAULT_SIZE)) {
+            assertEquals(0, journal.append(event(0), 100).sequence());
+            assertEquals(1, journal.append(event(1), 101).sequence());
+            assertEquals(2, journal.append(event(2), 102).sequence());
+            journal.acknowledge(1);
+            assertEquals(List.of(0, 2), bots(journal.getUnacknowledged()));
+        }
+
+        try (GameEventJournal journal = new GameEventJournal(file, GameEventJournal.DEFAULT_SIZE)) {
+            List<GameEventJournal.Entry> entries = journal.getUnacknowledged();
+            assertEquals(List.of(0, 2), bots(entries));
+            assertEquals(0, entries.get(0).sequence());
+            assertEquals(102, entries.get(1).time());
+
+            //sequence numbers go on where the previous run stopped
+            assertEquals(3, journal.append(event(3), 103).sequence());
+            journal.acknowledge(0);
+            journal.acknowledge(2);
+        }
+
+        try (GameEventJournal journal = new GameEventJournal(file, GameEventJournal.DEFAULT_SIZE)) {
+            assertEquals(List.of(3), bots(journal.getUnacknowledged()));
+        }
+    }
+
+    @Test
+    void acknowledgedJournalIsEmptyAfterReopen() throws IOException {
+        Path file = directory.resolve("journal");
+        try (GameEventJournal journal = new GameEventJournal(file, GameEventJournal.DEFAULT_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(event(i), i);
+            }
+            //out of order, as urgent events are sent first
+            for (int i = 9; i >= 0; i--) {
+                journal.acknowledge(i);
+            }
+        }
+
+        try (GameEventJournal journal = new GameEventJournal(file, GameEventJournal.DEFAULT_SIZE)) {
+            assertTrue(journal.getUnacknowledged().isEmpty());
+            assertEquals(10, journal.append(event(10), 10).sequence());
+        }
+    }
+
+    @Test
+    void compactsWhenTheEndIsReached() throws IOException {
+        Path file = directory.resolve("journal");
+        try (GameEventJournal journal = new GameEventJournal(file, 256)) {
+            //many times the size of the journal, with the last two events never acknowledged
+            for (int i = 0; i < 200; i++) {
+                journal.append(event(i), i);
+                if (i >= 2) {
+                    journal.acknowledge(i - 2);
+                }
+            }
+            assertEquals(0, journal.getDroppedCount());
+            assertEquals(List.of(198, 199), bots(journal.getUnacknowledged()));
+        }
+
+        try (GameEventJournal journal = new GameEventJournal(file, 256)) {
+            assertEquals(List.of(198, 199), bots(journal.getUnacknowledged()));
+            assertEquals(200, journal.append(event(200), 200).sequence());
+        }
+    }
+
+    @Test
+    void dropsTheOldestEventsWhenFull() throws IOException {
+        Path file = directory.resolve("journal");
+        List<Integer> unacknowledged;
+        try (GameEventJournal journal = new GameEventJournal(file, 256)) {
+            for (int i = 0; i < 50; i++) {
+                journal.append(event(i), i);
+            }
+            assertTrue(journal.getDroppedCount() > 0);
+
+            //the newest events are kept, in order
+            unacknowledged = bots(journal.getUnacknowledged());
+            assertEquals(50 - journal.getDroppedCount(), unacknowledged.size());
+            assertEquals(49, unacknowledged.get(unacknowledged.size() - 1));
+            for (int i = 1; i < unacknowledged.size(); i++) {
+                assertEquals(unacknowledged.get(i - 1) + 1, unacknowledged.get(i));
+            }
+        }
+
+        try (GameEventJournal journal = new GameEventJournal(file, 256)) {
+            assertEquals(unacknowledged, bots(journal.getUnacknowledged()));
+        }
+    }
+
+    @Test
+    void rejectsAnEventLargerThanTheJournal() throws IOException {
+        try (GameEventJournal journal = new GameEventJournal(directory.resolve("journal"), 32)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.append(event(1), 0));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package nl.roboteamtwente.autoref;
+
+import nl.roboteamtwente.autoref.model.*;
+import nl.roboteamtwente.autoref.parameters.RuleParameter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineCrossingDetectorTest {
+    private static final float MARGIN = RuleParameter.BOUNDARY_CROSSING_MARGIN.getDefaultValue();
+
+    private LineCrossingDetector detector;
+
+    @BeforeEach
+    void createDetector() {
+        detector = new LineCrossingDetector();
+    }
+
+    /**
+     * @return a game on a field of 12 by 9 meters with a goal of 1.8 meters, with the ball at the given position
+     */
+    private static Game game(double time, float x, float y, boolean visible) {
+        Game game = new Game();
+        game.setTime(time);
+
+        Field field = game.getField();
+        field.getPosition().setX(-6);
+        field.getPosition().setY(-4.5f);
+        field.getSize().setX(12);
+        field.getSize().setY(9);
+        field.getGoal().setWidth(1.8f);
+        field.addLine(new FieldLine("TopTouchLine", new Vector2(-6, 4.5f), new Vector2(6, 4.5f), 0.01f));
+        field.addLine(new FieldLine("BottomTouchLine", new Vector2(-6, -4.5f), new Vector2(6, -4.5f), 0.01f));
+        field.addLine(new FieldLine("LeftGoalLine", new Vector2(-6, -4.5f), new Vector2(-6, 4.5f), 0.01f));
+        field.addLine(new FieldLine("RightGoalLine", new Vector2(6, -4.5f), new Vector2(6, 4.5f), 0.01f));
+
+        game.getBall().getPosition().setX(x);
+        game.getBall().getPosition().setY(y);
+        game.getBall().setVisible(visible);
+        return game;
+    }
+
+    private static List<LineCrossing.Line> lines(List<LineCrossing> crossings) {
+        return crossings.stream().map(LineCrossing::line).toList();
+    }
+
+    @Test
+    void firstFrameHasNoCrossings() {
+        assertEquals(List.of(), detector.detect(game(0.0, 6.1f, 0, true)));
+    }
+
+    @Test
+    void ballIntoTheGoalCrossesTheGoalLineAndTheGoal() {
+        detector.detect(game(0.0, 5.9f, 0, true));
+        List<LineCrossing> crossings = detector.detect(game(0.1, 6.1f, 0.2f, true));
+
+        assertEquals(2, crossings.size());
+        assertTrue(lines(crossings).containsAll(List.of(LineCrossing.Line.RIGHT_GOAL_LINE, LineCrossing.Line.RIGHT_GOAL)));
+        for (LineCrossing crossing : crossings) {
+            assertEquals(0.05, crossing.time(), 1e-6);
+            assertEquals(6.0f, crossing.location().getX(), 1e-5f);
+            assertEquals(0.1f, crossing.location().getY(), 1e-5f);
+            assertTrue(crossing.leaving());
+        }
+    }
+
+    @Test
+    void ballNextToTheGoalOnlyCrossesTheGoalLine() {
+        detector.detect(game(0.0, 5.9f, 2, true));
+        assertEquals(List.of(LineCrossing.Line.RIGHT_GOAL_LINE), lines(detector.detect(game(0.1, 6.1f, 2, true))));
+    }
+
+    @Test
+    void ballComingBackIsNotLeaving() {
+        detector.detect(game(0.0, 0, 4.6f, true));
+        List<LineCrossing> crossings = detector.detect(game(0.1, 0, 4.4f, true));
+        assertEquals(List.of(LineCrossing.Line.TOP_TOUCH_LINE), lines(crossings));
+        assertFalse(crossings.get(0).leaving());
+    }
+
+    @Test
+    void crossingsAreOrderedByTime() {
+        detector.detect(game(0.0, 0, 4.4f, true));
+        List<LineCrossing> crossings = detector.detect(game(0.1, 0, 4.5f + MARGIN + 0.1f, true));
+        assertEquals(List.of(LineCrossing.Line.TOP_TOUCH_LINE, LineCrossing.Line.BOUNDARY), lines(crossings));
+        assertTrue(crossings.get(0).time() < crossings.get(1).time());
+    }
+
+    @Test
+    void pathOfAHiddenBallStartsWhereItWasLastSeen() {
+        detector.detect(game(0.0, 5.9f, 0, true));
+        //hidden in the goal, behind the goalkeeper
+        assertEquals(List.of(), detector.detect(game(0.1, 0, 0, false)));
+        assertEquals(List.of(), detector.detect(game(0.2, 0, 0, false)));
+
+        List<LineCrossing> crossings = detector.detect(game(0.3, 6.1f, 0, true));
+        assertTrue(lines(crossings).contains(LineCrossing.Line.RIGHT_GOAL));
+        assertEquals(0.15, crossings.get(0).time(), 1e-6);
+    }
+
+    @Test
+    void ballThatDidNotMoveHasNoCrossings() {
+        detector.detect(game(0.0, 6.0f, 0, true));
+        assertEquals(List.of(), detector.detect(game(0.1, 6.0f, 0, true)));
+    }
+}